@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.storage.film.LikesCountRepair;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Встроенная H2 со схемой приложения из миграций и синтетическими данными заданного объема.
+ * Id фильмов и пользователей идут подряд с 1.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+    private static final int GENRES_PER_FILM = 3;
+    private static final int GENRES = 6;
+    private static final int MPAS = 5;
+    private static final int BATCH_SIZE = 1000;
+
+    private final EmbeddedDatabase database;
+    private final JdbcTemplate jdbcTemplate;
+
+    private BenchmarkDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        Flyway.configure()
+                .dataSource(database)
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    public static BenchmarkDatabase seeded(int films, int users, int likesPerFilm, int friendsPerUser) {
+        BenchmarkDatabase benchmarkDatabase = new BenchmarkDatabase();
+        benchmarkDatabase.insertFilms(films);
+        benchmarkDatabase.insertUsers(users);
+        benchmarkDatabase.insertLikes(films, users, likesPerFilm);
+        benchmarkDatabase.insertFriendships(users, friendsPerUser);
+        return benchmarkDatabase;
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void close() {
+        database.shutdown();
+    }
+
+    private void insertFilms(int films) {
+        List<Object[]> filmRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> genreRows = new ArrayList<>(BATCH_SIZE * GENRES_PER_FILM);
+        for (long filmId = 1; filmId <= films; filmId++) {
+            filmRows.add(new Object[]{filmId, "Film " + filmId, "Description of film " + filmId,
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(filmId % 25_000)), 60 + filmId % 120,
+                    1 + filmId % MPAS});
+            for (int i = 0; i < GENRES_PER_FILM; i++) {
+                genreRows.add(new Object[]{filmId, 1 + (filmId + i) % GENRES});
+            }
+            if (filmRows.size() == BATCH_SIZE || filmId == films) {
+                jdbcTemplate.batchUpdate("INSERT INTO films (film_id, name, description, release_date, duration, " +
+                        "rating_id) VALUES (?, ?, ?, ?, ?, ?)", filmRows);
+                jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genreRows);
+                filmRows.clear();
+                genreRows.clear();
+            }
+        }
+    }
+
+    private void insertUsers(int users) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long userId = 1; userId <= users; userId++) {
+            rows.add(new Object[]{userId, "user" + userId + "@mail.ru", "user" + userId, "User " + userId,
+                    Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(userId % 15_000))});
+            if (rows.size() == BATCH_SIZE || userId == users) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (user_id, email, login, name, birthday) " +
+                        "VALUES (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    // Число лайков убывает с ростом id фильма, чтобы рейтинг популярности не был плоским
+    private void insertLikes(int films, int users, int likesPerFilm) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long filmId = 1; filmId <= films; filmId++) {
+            int likes = (int) Math.min(users, Math.max(1, likesPerFilm * 2L * (films - filmId + 1) / films));
+            for (int i = 0; i < likes; i++) {
+                rows.add(new Object[]{filmId, 1 + (filmId * 31 + i) % users});
+                if (rows.size() == BATCH_SIZE) {
+                    insertLikeRows(rows);
+                }
+            }
+        }
+        insertLikeRows(rows);
+        jdbcTemplate.update(LikesCountRepair.REPAIR_SQL);
+    }
+
+    private void insertLikeRows(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", rows);
+        rows.clear();
+    }
+
+    private void insertFriendships(int users, int friendsPerUser) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int friends = Math.min(friendsPerUser, users - 1);
+        for (long userId = 1; userId <= users; userId++) {
+            for (int i = 1; i <= friends; i++) {
+                rows.add(new Object[]{userId, 1 + (userId - 1 + i) % users});
+                if (rows.size() == BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate("INSERT INTO friendship (user_id, friend_id) VALUES (?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO friendship (user_id, friend_id) VALUES (?, ?)", rows);
+        }
+    }
+
+}
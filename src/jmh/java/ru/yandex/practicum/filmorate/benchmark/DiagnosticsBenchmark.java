@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowMapper;
+import ru.yandex.practicum.filmorate.config.diagnostics.RequestDiagnostics;
+import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность маппинга фильмов в трех режимах: прежнее логирование каждой строки на INFO,
+ * диагностика выключена (обычный запрос) и запрос, попавший в выборку диагностики.
+ * Логи мапперов пишутся асинхронно в target/jmh-diagnostics.log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiagnosticsBenchmark {
+    @Param({"10000"})
+    public int rows;
+
+    private final FilmRowMapper filmRowMapper = new FilmRowMapper();
+    private final RowMapper<Film> legacyFilmRowMapper = new LegacyLoggingFilmRowMapper();
+
+    private BenchmarkDatabase database;
+    private Connection connection;
+    private ResultSet films;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.seeded(rows, 1, 0, 0);
+        connection = database.getJdbcTemplate().getDataSource().getConnection();
+        films = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)
+                .executeQuery("SELECT f.film_id, f.name, f.description, f.release_date, f.duration, " +
+                        "m.rating_id, m.name AS rating FROM films f LEFT JOIN mpa m ON f.rating_id = m.rating_id");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        RequestDiagnostics.clear();
+        connection.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void legacyPerRowLogging(Blackhole blackhole) throws SQLException {
+        mapAll(legacyFilmRowMapper, blackhole);
+    }
+
+    @Benchmark
+    public void diagnosticsDisabled(Blackhole blackhole) throws SQLException {
+        RequestDiagnostics.clear();
+        mapAll(filmRowMapper, blackhole);
+    }
+
+    @Benchmark
+    public void diagnosticsSampled(Blackhole blackhole) throws SQLException {
+        RequestDiagnostics.activate("benchmark");
+        try {
+            mapAll(filmRowMapper, blackhole);
+        } finally {
+            RequestDiagnostics.clear();
+        }
+    }
+
+    private void mapAll(RowMapper<Film> mapper, Blackhole blackhole) throws SQLException {
+        films.beforeFirst();
+        int rowNum = 0;
+        while (films.next()) {
+            blackhole.consume(mapper.mapRow(films, rowNum++));
+        }
+    }
+
+    // Повторяет логирование FilmRowMapper до введения диагностического режима
+    private static final class LegacyLoggingFilmRowMapper implements RowMapper<Film> {
+        private static final Logger log = LoggerFactory.getLogger("ru.yandex.practicum.filmorate.mappers.legacy");
+
+        @Override
+        public Film mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+            log.info("FilmRowMapper has started: {}", resultSet.toString());
+            Film film = new Film();
+            film.setId(resultSet.getLong("film_id"));
+            film.setName(resultSet.getString("name"));
+            film.setDescription(resultSet.getString("description"));
+            film.setReleaseDate(resultSet.getDate("release_date").toLocalDate());
+            film.setDuration(resultSet.getLong("duration"));
+
+            Mpa mpa = new Mpa();
+            mpa.setId(resultSet.getInt("rating_id"));
+            mpa.setName(resultSet.getString("rating"));
+            film.setMpa(mpa);
+            log.info("Фильм после обработки  FilmRowMapper -> {}", film);
+            log.info("FilmRowMapper finish");
+            return film;
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.mappers.user.UserRowMapper;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость маппинга строк без выполнения запроса: результат выбирается один раз
+ * в прокручиваемый ResultSet и перечитывается в каждой итерации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private final FilmRowMapper filmRowMapper = new FilmRowMapper();
+    private final UserRowMapper userRowMapper = new UserRowMapper();
+
+    private BenchmarkDatabase database;
+    private Connection connection;
+    private ResultSet films;
+    private ResultSet users;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.seeded(rows, rows, 0, 0);
+        connection = database.getJdbcTemplate().getDataSource().getConnection();
+        films = scrollable("SELECT f.film_id, f.name, f.description, f.release_date, f.duration, " +
+                "m.rating_id, m.name AS rating FROM films f LEFT JOIN mpa m ON f.rating_id = m.rating_id");
+        users = scrollable("SELECT user_id, login, name, email, birthday FROM users");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void filmRowMapper(Blackhole blackhole) throws SQLException {
+        films.beforeFirst();
+        int rowNum = 0;
+        while (films.next()) {
+            blackhole.consume(filmRowMapper.mapRow(films, rowNum++));
+        }
+    }
+
+    @Benchmark
+    public void userRowMapper(Blackhole blackhole) throws SQLException {
+        users.beforeFirst();
+        int rowNum = 0;
+        while (users.next()) {
+            blackhole.consume(userRowMapper.mapRow(users, rowNum++));
+        }
+    }
+
+    private ResultSet scrollable(String query) throws SQLException {
+        Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        return statement.executeQuery(query);
+    }
+
+}
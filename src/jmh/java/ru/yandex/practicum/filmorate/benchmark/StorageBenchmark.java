@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.mappers.film.FilmResultSetExtractor;
+import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.mappers.user.UserRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"1000", "10000"})
+    public int films;
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"20"})
+    public int likesPerFilm;
+
+    @Param({"50", "500"})
+    public int friendsPerUser;
+
+    @Param({"10"})
+    public int count;
+
+    private BenchmarkDatabase database;
+    private FilmDbStorage filmDbStorage;
+    private FriendDbStorage friendDbStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.seeded(films, users, likesPerFilm, friendsPerUser);
+        filmDbStorage = new FilmDbStorage(database.getJdbcTemplate(),
+                new FilmResultSetExtractor(new FilmRowMapper()));
+        FriendshipGraph friendshipGraph = new FriendshipGraph(database.getJdbcTemplate());
+        friendshipGraph.rebuild();
+        friendDbStorage = new FriendDbStorage(database.getJdbcTemplate(),
+                new UserDbStorage(database.getJdbcTemplate(), new UserRowMapper()), friendshipGraph);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmDbStorage.getPopularFilms(count);
+    }
+
+    // Соседние пользователи делят почти всех друзей, это худший случай для пересечения
+    @Benchmark
+    public List<User> findCommonFriends() {
+        return friendDbStorage.findCommonFriends(1, 2);
+    }
+
+}
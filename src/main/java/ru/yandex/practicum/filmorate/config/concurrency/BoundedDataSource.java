@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.config.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Ограничивает число одновременно занятых соединений честным семафором по размеру пула.
+ * Виртуальные потоки ждут разрешения в очереди семафора (паркуются без занятия carrier-потока),
+ * а не в пуле соединений. Разрешение возвращается при закрытии соединения.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long timeoutMillis;
+    private final Supplier<MeterRegistry> meterRegistry;
+    private volatile Timer permitWait;
+
+    public BoundedDataSource(DataSource dataSource, int maxConcurrency, long timeoutMillis,
+                             Supplier<MeterRegistry> meterRegistry) {
+        super(dataSource);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutMillis = timeoutMillis;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Не дождались свободного соединения за " +
+                        timeoutMillis + " мс, в очереди " + permits.getQueueLength());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения прервано", e);
+        } finally {
+            permitWait().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(BoundedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+    // Метрики регистрируются при первом обращении, как и в MeteredDataSource
+    private Timer permitWait() {
+        Timer timer = permitWait;
+        if (timer == null) {
+            MeterRegistry registry = meterRegistry.get();
+            Gauge.builder("filmorate.jdbc.permits.queued", permits, Semaphore::getQueueLength)
+                    .description("Потоков в очереди за соединением")
+                    .register(registry);
+            Gauge.builder("filmorate.jdbc.permits.available", permits, Semaphore::availablePermits)
+                    .description("Свободных разрешений на соединение")
+                    .register(registry);
+            timer = Timer.builder("filmorate.jdbc.permits.wait")
+                    .description("Время ожидания разрешения на соединение")
+                    .register(registry);
+            permitWait = timer;
+        }
+        return timer;
+    }
+
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.config.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает пул в {@link BoundedDataSource} в режиме виртуальных потоков. Выполняется раньше
+ * остальных оберток, поэтому время ожидания разрешения входит в filmorate.jdbc.connection.wait.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.jdbc.bounded-concurrency", havingValue = "true")
+public class BoundedDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+    private static final int DEFAULT_MAX_CONCURRENCY = 10;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public BoundedDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof BoundedDataSource) {
+            return bean;
+        }
+        int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        if (bean instanceof HikariDataSource hikari) {
+            maxConcurrency = hikari.getMaximumPoolSize();
+            timeoutMillis = hikari.getConnectionTimeout();
+        }
+        log.info("Доступ к JDBC ограничен {} одновременными соединениями", maxConcurrency);
+        return new BoundedDataSource(dataSource, maxConcurrency, timeoutMillis, meterRegistry::getObject);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+}
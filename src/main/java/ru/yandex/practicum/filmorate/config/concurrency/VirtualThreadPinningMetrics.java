@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.config.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Считает блокировки виртуальных потоков на carrier-потоке (событие JFR jdk.VirtualThreadPinned).
+ * Стек события пишется в лог на DEBUG, чтобы найти synchronized-участок с блокирующим вызовом.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMetrics implements MeterBinder, DisposableBean {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMetrics(@Value("${filmorate.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        if (recordingStream != null) {
+            return;
+        }
+        Counter pinned = Counter.builder("filmorate.virtual.pinned")
+                .description("Сколько раз виртуальный поток блокировал carrier-поток дольше порога")
+                .register(registry);
+        Timer pinnedDuration = Timer.builder("filmorate.virtual.pinned.duration")
+                .description("Длительность блокировки carrier-потока")
+                .register(registry);
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            pinnedDuration.record(event.getDuration());
+            if (log.isDebugEnabled()) {
+                log.debug("Виртуальный поток закреплен на carrier на {} мс: {}",
+                        event.getDuration().toMillis(), event.getStackTrace());
+            }
+        });
+        recordingStream.startAsync();
+        log.info("Запущен учет закрепления виртуальных потоков, порог {}", threshold);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.config.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Включает диагностику для выборки запросов: с вероятностью sample-rate или по заголовку X-Diagnostics: on.
+ * Id запроса попадает в MDC (requestId) и возвращается в заголовке X-Diagnostics-Id.
+ */
+@Slf4j
+@Component
+public class DiagnosticsFilter extends OncePerRequestFilter {
+    public static final String DIAGNOSTICS_HEADER = "X-Diagnostics";
+    public static final String DIAGNOSTICS_ID_HEADER = "X-Diagnostics-Id";
+
+    private final boolean enabled;
+    private final double sampleRate;
+
+    public DiagnosticsFilter(@Value("${filmorate.diagnostics.enabled:false}") boolean enabled,
+                             @Value("${filmorate.diagnostics.sample-rate:0.01}") double sampleRate) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!isSampled(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String requestId = UUID.randomUUID().toString();
+        response.setHeader(DIAGNOSTICS_ID_HEADER, requestId);
+        RequestDiagnostics.activate(requestId);
+        long start = System.nanoTime();
+        try {
+            log.info("Диагностика запроса {} {}", request.getMethod(), request.getRequestURI());
+            chain.doFilter(request, response);
+        } finally {
+            log.info("Диагностика запроса завершена, статус {}, {} мкс", response.getStatus(),
+                    (System.nanoTime() - start) / 1_000);
+            RequestDiagnostics.clear();
+        }
+    }
+
+    private boolean isSampled(HttpServletRequest request) {
+        if ("on".equalsIgnoreCase(request.getHeader(DIAGNOSTICS_HEADER))) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+}
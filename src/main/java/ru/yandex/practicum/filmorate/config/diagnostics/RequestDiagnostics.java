@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.config.diagnostics;
+
+import org.slf4j.MDC;
+
+/**
+ * Флаг подробной диагностики для текущего запроса. Горячие пути (мапперы, сервисы) проверяют
+ * {@link #isActive()} перед логированием: пока режим выключен, это одно чтение ThreadLocal
+ * без аллокаций, сообщения и аргументы не формируются.
+ */
+public final class RequestDiagnostics {
+    public static final String REQUEST_ID_MDC_KEY = "requestId";
+
+    private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private RequestDiagnostics() {
+    }
+
+    public static boolean isActive() {
+        return ACTIVE.get();
+    }
+
+    public static void activate(String requestId) {
+        ACTIVE.set(Boolean.TRUE);
+        MDC.put(REQUEST_ID_MDC_KEY, requestId);
+    }
+
+    public static void clear() {
+        ACTIVE.set(Boolean.FALSE);
+        MDC.remove(REQUEST_ID_MDC_KEY);
+    }
+
+}
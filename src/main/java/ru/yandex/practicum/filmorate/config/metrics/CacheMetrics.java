@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.config.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.JsonResponseCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.film.WriteBehindLikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserTypeaheadIndex;
+import ru.yandex.practicum.filmorate.storage.user.UserUniquenessIndex;
+
+/**
+ * Размеры индексов в памяти и счетчики попаданий кеша справочников.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics implements MeterBinder {
+    private static final String SIZE = "filmorate.cache.size";
+
+    private final ReferenceDataCache referenceDataCache;
+    private final FilmPopularityIndex filmPopularityIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final UserUniquenessIndex userUniquenessIndex;
+    private final UserTypeaheadIndex userTypeaheadIndex;
+    private final LikesMatrix likesMatrix;
+    private final ObjectProvider<FriendshipGraph> friendshipGraph;
+    private final JsonResponseCache jsonResponseCache;
+    private final ObjectProvider<WriteBehindLikeStorage> writeBehindLikeStorage;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("filmorate.cache.requests", referenceDataCache, ReferenceDataCache::getHits)
+                .tag("cache", "reference-data")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.requests", referenceDataCache, ReferenceDataCache::getMisses)
+                .tag("cache", "reference-data")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.unknown-ids", referenceDataCache, ReferenceDataCache::getUnknownIds)
+                .tag("cache", "reference-data")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.requests", jsonResponseCache, JsonResponseCache::getHits)
+                .tag("cache", "json-responses")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.requests", jsonResponseCache, JsonResponseCache::getMisses)
+                .tag("cache", "json-responses")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("filmorate.cache.version", referenceDataCache, ReferenceDataCache::getVersion)
+                .tag("cache", "reference-data")
+                .register(registry);
+
+        Gauge.builder(SIZE, filmPopularityIndex, FilmPopularityIndex::size)
+                .tag("cache", "film-popularity")
+                .register(registry);
+        Gauge.builder(SIZE, filmSearchIndex, FilmSearchIndex::size)
+                .tag("cache", "film-search")
+                .register(registry);
+        Gauge.builder(SIZE, userUniquenessIndex, UserUniquenessIndex::size)
+                .tag("cache", "user-uniqueness")
+                .register(registry);
+        Gauge.builder(SIZE, userTypeaheadIndex, UserTypeaheadIndex::size)
+                .tag("cache", "user-typeahead")
+                .register(registry);
+        Gauge.builder(SIZE, likesMatrix, LikesMatrix::size)
+                .tag("cache", "likes-matrix")
+                .register(registry);
+        Gauge.builder(SIZE, jsonResponseCache, JsonResponseCache::size)
+                .tag("cache", "json-responses")
+                .register(registry);
+        friendshipGraph.ifAvailable(graph -> Gauge.builder(SIZE, graph, FriendshipGraph::size)
+                .tag("cache", "friendship-graph")
+                .register(registry));
+        writeBehindLikeStorage.ifAvailable(storage -> {
+            Gauge.builder(SIZE, storage, WriteBehindLikeStorage::size)
+                    .tag("cache", "likes-write-behind")
+                    .register(registry);
+            FunctionCounter.builder("filmorate.likes.checkpoint-failures", storage,
+                            WriteBehindLikeStorage::getCheckpointFailures)
+                    .register(registry);
+        });
+    }
+
+}
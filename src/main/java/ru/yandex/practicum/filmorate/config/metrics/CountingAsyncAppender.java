@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.config.metrics;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AsyncAppender, который считает сообщения, отброшенные из-за переполненной очереди в режиме neverBlock.
+ * Logback создает аппендер сам, вне контекста Spring, поэтому счетчик статический и публикуется
+ * в метриках через {@link LoggingMetrics}.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    private static final LongAdder DROPPED = new LongAdder();
+
+    public static long getDropped() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            DROPPED.increment();
+            if (DROPPED.sum() == 1) {
+                addWarn("Очередь логов переполнена, сообщения отбрасываются; см. метрику filmorate.logging.dropped");
+            }
+            return;
+        }
+        super.append(event);
+    }
+
+}
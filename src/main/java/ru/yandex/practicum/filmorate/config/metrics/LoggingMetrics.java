@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.config.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Число сообщений лога, потерянных асинхронным аппендером.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("filmorate.logging.dropped", this, metrics -> CountingAsyncAppender.getDropped())
+                .description("Сообщения лога, отброшенные при переполненной очереди AsyncAppender")
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.config.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Обертка над пулом соединений: время ожидания соединения, число выполненных запросов
+ * и число прочитанных строк результата. Запросы и строки считаются через JDK-прокси
+ * над Connection, Statement и ResultSet, то есть рефлексивным вызовом на каждое обращение к JDBC,
+ * поэтому они включаются отдельно (filmorate.jdbc.statement-metrics) для профилирования.
+ * Без них обертка только замеряет ожидание соединения и отдает соединение пула как есть.
+ */
+public class MeteredDataSource extends DelegatingDataSource {
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate");
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final boolean statementMetrics;
+    private volatile Meters meters;
+
+    /**
+     * Реестр запрашивается при первом соединении: на этапе создания пула он может быть еще не готов,
+     * а его создание тянет за собой бины, которым самим нужен DataSource.
+     */
+    public MeteredDataSource(DataSource dataSource, Supplier<MeterRegistry> meterRegistry, boolean statementMetrics) {
+        super(dataSource);
+        this.meterRegistry = meterRegistry;
+        this.statementMetrics = statementMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        return metered(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        return metered(connection, start);
+    }
+
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection metered(Connection connection, long start) {
+        Meters currentMeters = meters();
+        currentMeters.connectionWait().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!statementMetrics) {
+            return connection;
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection, currentMeters));
+    }
+
+    private Meters meters() {
+        Meters currentMeters = meters;
+        if (currentMeters == null) {
+            MeterRegistry registry = meterRegistry.get();
+            Timer connectionWait = Timer.builder("filmorate.jdbc.connection.wait")
+                    .description("Время ожидания соединения из пула")
+                    .register(registry);
+            currentMeters = !statementMetrics ? new Meters(connectionWait, null, null) : new Meters(
+                    connectionWait,
+                    Counter.builder("filmorate.jdbc.statements")
+                            .description("Выполнено SQL-запросов, пакет считается по числу операторов")
+                            .register(registry),
+                    Counter.builder("filmorate.jdbc.rows")
+                            .description("Строк прочитано из ResultSet")
+                            .register(registry));
+            meters = currentMeters;
+        }
+        return currentMeters;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record Meters(Timer connectionWait, Counter statements, Counter rows) {
+    }
+
+    private record ConnectionHandler(Connection connection, Meters meters) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = MeteredDataSource.invoke(connection, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return MeteredDataSource.proxy(method.getReturnType(), new StatementHandler(statement, meters));
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Statement statement, Meters meters) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = MeteredDataSource.invoke(statement, method, args);
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                meters.statements().increment();
+            } else if (BATCH_METHODS.contains(name)) {
+                int executed = result instanceof int[] counts ? counts.length : ((long[]) result).length;
+                meters.statements().increment(executed);
+            }
+            if (result instanceof ResultSet resultSet && method.getReturnType() == ResultSet.class) {
+                return MeteredDataSource.proxy(ResultSet.class, new ResultSetHandler(resultSet, meters));
+            }
+            return result;
+        }
+    }
+
+    private record ResultSetHandler(ResultSet resultSet, Meters meters) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = MeteredDataSource.invoke(resultSet, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                meters.rows().increment();
+            }
+            return result;
+        }
+    }
+
+}
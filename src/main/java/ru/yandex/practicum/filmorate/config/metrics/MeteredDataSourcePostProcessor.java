@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+public class MeteredDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final boolean statementMetrics;
+
+    public MeteredDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                          @Value("${filmorate.jdbc.statement-metrics:false}") boolean statementMetrics) {
+        this.meterRegistry = meterRegistry;
+        this.statementMetrics = statementMetrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof MeteredDataSource)) {
+            return new MeteredDataSource(dataSource, meterRegistry::getObject, statementMetrics);
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+}
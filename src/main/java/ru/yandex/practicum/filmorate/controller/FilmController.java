@@ -3,10 +3,13 @@ package ru.yandex.practicum.filmorate.controller;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.film.CatalogVersions;
 import ru.yandex.practicum.filmorate.service.film.FilmService;
 
 import java.util.*;
@@ -15,24 +18,64 @@ import java.util.*;
 @RestController
 public class FilmController {
     private final FilmService filmService;
+    private final CatalogVersions catalogVersions;
+    private final JsonResponseCache jsonResponseCache;
 
     @Autowired
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, CatalogVersions catalogVersions,
+                          JsonResponseCache jsonResponseCache) {
         this.filmService = filmService;
+        this.catalogVersions = catalogVersions;
+        this.jsonResponseCache = jsonResponseCache;
     }
 
+    // Версия берется до чтения данных: если данные окажутся новее тега, клиент просто получит их повторно
     @GetMapping("/films/{filmId}")
-    public Film getFilmById(@PathVariable("filmId") Long filmId) {
+    public Film getFilmById(@PathVariable("filmId") Long filmId, WebRequest request) {
         log.info("Запрос на получение списка по id");
+        if (request.checkNotModified(catalogVersions.filmTag(filmId))) {
+            return null;
+        }
         return filmService.findById(filmId);
     }
 
     @GetMapping("/films")
-    public List<Film> findAll() {
-        log.info("Запрос на получение списка все фильмов");
-        List<Film> allFilms = filmService.findAll();
-        log.info("Список всех фильмов успешно получен");
-        return allFilms;
+    public ResponseEntity<List<Film>> findAll(@RequestParam(name = "after", required = false) String after,
+                                              @RequestParam(name = "limit", required = false) Integer limit,
+                                              WebRequest request) {
+        if (request.checkNotModified(catalogVersions.catalogTag())) {
+            return null;
+        }
+        if (after == null && limit == null) {
+            log.info("Запрос на получение списка все фильмов");
+            List<Film> allFilms = filmService.findAll();
+            log.info("Список всех фильмов успешно получен");
+            return ResponseEntity.ok(allFilms);
+        }
+
+        int pageSize = PageCursor.limit(limit);
+        log.info("Запрос на получение страницы из {} фильмов", pageSize);
+        List<Film> films = filmService.findPage(PageCursor.decode(after), pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (films.size() == pageSize) {
+            response.header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(films.getLast().getId()));
+        }
+        log.info("Страница из {} фильмов успешно получена", films.size());
+        return response.body(films);
+    }
+
+    @GetMapping("/films/search")
+    public List<Film> search(@RequestParam(name = "q") String query,
+                             @RequestParam(name = "offset", defaultValue = "0") int offset,
+                             @RequestParam(name = "limit", required = false) Integer limit,
+                             WebRequest request) {
+        log.info("Запрос на поиск фильмов: '{}'", query);
+        if (request.checkNotModified(catalogVersions.catalogTag())) {
+            return null;
+        }
+        List<Film> films = filmService.search(query, offset, PageCursor.limit(limit));
+        log.info("Найдено {} фильмов", films.size());
+        return films;
     }
 
     @PostMapping("/films")
@@ -68,34 +111,57 @@ public class FilmController {
     }
 
     @GetMapping("/films/popular")
-    public List<Film> getPopularFilms(@RequestParam(name = "count", defaultValue = "10") int count) {
-        log.info("Получен запрос на получение {} популярных фильмов", count);
-        List<Film> popularFilms = filmService.getPopularFilms(count);
-        log.info("Список {} популярных фильмов успешно получен", popularFilms.size());
-        return popularFilms;
+    public ResponseEntity<byte[]> getPopularFilms(@RequestParam(name = "count", defaultValue = "10") int count,
+                                                  @RequestParam(name = "genreId", required = false) Integer genreId,
+                                                  @RequestParam(name = "mpaId", required = false) Integer mpaId,
+                                                  @RequestParam(name = "year", required = false) Integer year,
+                                                  WebRequest request) {
+        log.info("Получен запрос на получение {} популярных фильмов: жанр {}, рейтинг {}, год {}",
+                count, genreId, mpaId, year);
+        String tag = catalogVersions.catalogTag();
+        String key = "films/popular?count=" + count + "&genreId=" + genreId + "&mpaId=" + mpaId + "&year=" + year;
+        return jsonResponseCache.respond(key, tag, request,
+                () -> filmService.getPopularFilms(count, genreId, mpaId, year));
+    }
+
+    @GetMapping("/users/{userId}/recommendations")
+    public List<Film> getRecommendations(@PathVariable long userId,
+                                         @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        log.info("Получен запрос на получение рекомендаций фильмов для пользователя id {}", userId);
+        List<Film> recommendations = filmService.getRecommendations(userId, limit);
+        log.info("Список из {} рекомендованных фильмов успешно получен", recommendations.size());
+        return recommendations;
     }
 
     @GetMapping("/mpa")
-    public List<Mpa> getAllMpas() {
+    public ResponseEntity<byte[]> getAllMpas(WebRequest request) {
         log.info("Запрос на получение списка рейтингов");
-        return filmService.findAllMpa();
+        String tag = catalogVersions.referenceTag();
+        return jsonResponseCache.respond("mpa", tag, request, filmService::findAllMpa);
     }
 
     @GetMapping("/mpa/{mpaId}")
-    public Mpa findMpaById(@PathVariable int mpaId) {
+    public Mpa findMpaById(@PathVariable int mpaId, WebRequest request) {
         log.info("Запрос на получение рейтинга по id");
+        if (request.checkNotModified(catalogVersions.referenceTag())) {
+            return null;
+        }
         return filmService.findMpaById(mpaId);
     }
 
     @GetMapping("/genres")
-    public List<Genre> getAllGenres() {
+    public ResponseEntity<byte[]> getAllGenres(WebRequest request) {
         log.info("жанров");
-        return filmService.findAllGenres();
+        String tag = catalogVersions.referenceTag();
+        return jsonResponseCache.respond("genres", tag, request, filmService::findAllGenres);
     }
 
     @GetMapping("/genres/{genreId}")
-    public Genre getGenresById(@PathVariable int genreId) {
+    public Genre getGenresById(@PathVariable int genreId, WebRequest request) {
         log.info("Запрос на получение жанра по id");
+        if (request.checkNotModified(catalogVersions.referenceTag())) {
+            return null;
+        }
         return filmService.findGenreById(genreId);
     }
 
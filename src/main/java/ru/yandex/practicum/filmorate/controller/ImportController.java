@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.service.importer.ImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Slf4j
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private final ImportService importService;
+
+    @Autowired
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(value = "/films", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importFilms(InputStream body,
+                                    @RequestParam(name = "batchSize", required = false) Integer batchSize)
+            throws IOException {
+        log.info("Запрос на импорт фильмов");
+        return importService.importFilms(body, batchSize);
+    }
+
+    @PostMapping(value = "/users", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importUsers(InputStream body,
+                                    @RequestParam(name = "batchSize", required = false) Integer batchSize)
+            throws IOException {
+        log.info("Запрос на импорт пользователей");
+        return importService.importUsers(body, batchSize);
+    }
+
+    @PostMapping(value = "/likes", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importLikes(InputStream body,
+                                    @RequestParam(name = "batchSize", required = false) Integer batchSize)
+            throws IOException {
+        log.info("Запрос на импорт лайков");
+        return importService.importLikes(body, batchSize);
+    }
+
+    @PostMapping(value = "/friendships", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importFriendships(InputStream body,
+                                          @RequestParam(name = "batchSize", required = false) Integer batchSize)
+            throws IOException {
+        log.info("Запрос на импорт дружбы пользователей");
+        return importService.importFriendships(body, batchSize);
+    }
+
+}
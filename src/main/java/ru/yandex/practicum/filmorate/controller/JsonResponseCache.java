@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Готовые JSON-ответы горячих списков в виде байтов (UTF-8 и gzip). Запись привязана к тегу версии
+ * из CatalogVersions, поэтому мутации в FilmService сбрасывают ее сами собой: при следующем запросе тег
+ * не совпадет и ответ будет собран заново. Хранится не больше {@link #MAX_ENTRIES} последних ключей.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JsonResponseCache {
+    private static final int MAX_ENTRIES = 256;
+    private static final String GZIP = "gzip";
+    private static final String GZIP_TAG_SUFFIX = "-gz";
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            // Ключи зависят от параметров запроса, поэтому вытесняем давно не запрошенные
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Отдает закешированные байты для ключа, если они собраны для того же тега, иначе загружает данные
+     * и сериализует их. Тег нужно прочитать до загрузки данных. ETag у gzip-ответа получает суффикс
+     * {@value #GZIP_TAG_SUFFIX}, так как его байты отличаются; если тег совпал с If-None-Match,
+     * возвращается null, как после {@link WebRequest#checkNotModified(String)}.
+     */
+    public ResponseEntity<byte[]> respond(String key, String tag, WebRequest request, Supplier<?> loader) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (request.checkNotModified(gzip ? tag + GZIP_TAG_SUFFIX : tag)) {
+            return null;
+        }
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null || !entry.tag().equals(tag)) {
+            misses.increment();
+            entry = serialize(tag, loader.get());
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        } else {
+            hits.increment();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(entry.gzip());
+        }
+        return response.body(entry.json());
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Entry serialize(String tag, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(json);
+            }
+            log.debug("Ответ собран для тега {}: {} байт, gzip {} байт", tag, json.length, buffer.size());
+            return new Entry(tag, json, buffer.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Разбирает Accept-Encoding с весами: gzip;q=0 запрещает сжатие, а без явного gzip решает "*".
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipWeight = null;
+        Double anyWeight = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double weight = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        weight = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        weight = 0;
+                    }
+                }
+            }
+            if (GZIP.equalsIgnoreCase(name)) {
+                gzipWeight = weight;
+            } else if ("*".equals(name)) {
+                anyWeight = weight;
+            }
+        }
+        if (gzipWeight != null) {
+            return gzipWeight > 0;
+        }
+        return anyWeight != null && anyWeight > 0;
+    }
+
+    private record Entry(String tag, byte[] json, byte[] gzip) {
+    }
+
+}
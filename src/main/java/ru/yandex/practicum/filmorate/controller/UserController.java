@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.controller;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.user.UserService;
@@ -21,8 +22,29 @@ public class UserController {
     }
 
     @GetMapping
-    public List<User> findAll() {
-        return userService.findAll();
+    public ResponseEntity<List<User>> findAll(@RequestParam(name = "after", required = false) String after,
+                                              @RequestParam(name = "limit", required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(userService.findAll());
+        }
+
+        int pageSize = PageCursor.limit(limit);
+        log.info("Запрос на получение страницы из {} пользователей", pageSize);
+        List<User> users = userService.findPage(PageCursor.decode(after), pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (users.size() == pageSize) {
+            response.header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(users.getLast().getId()));
+        }
+        return response.body(users);
+    }
+
+    @GetMapping("/typeahead")
+    public List<User> typeahead(@RequestParam(name = "prefix") String prefix,
+                                @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        log.info("Запрос на подсказки пользователей по префиксу '{}'", prefix);
+        List<User> users = userService.typeahead(prefix, limit);
+        log.info("Подсказки пользователей получены, количество: {}", users.size());
+        return users;
     }
 
     @PostMapping
@@ -71,10 +93,19 @@ public class UserController {
         log.info("Запрос на получение списка общих друзей пользователя id: {} с пользователем id: {}",
                 userId, otherUserId);
         List<User> friends = userService.findCommonFriends(userId, otherUserId);
-        log.info("Список общих друзей пользователя id: {} с пользователем id : {} успешно получен : {}",
-                userId, otherUserId, friends);
+        log.info("Список общих друзей пользователя id: {} с пользователем id : {} успешно получен, количество: {}",
+                userId, otherUserId, friends.size());
 
         return friends;
     }
 
+    @GetMapping("/{userId}/suggestions")
+    public List<User> getSuggestions(@PathVariable long userId,
+                                     @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        log.info("Запрос на получение {} рекомендаций друзей для пользователя id: {}", limit, userId);
+        List<User> suggestions = userService.getSuggestions(userId, limit);
+        log.info("Рекомендации друзей для пользователя id: {} получены, количество: {}", userId, suggestions.size());
+        return suggestions;
+    }
+
 }
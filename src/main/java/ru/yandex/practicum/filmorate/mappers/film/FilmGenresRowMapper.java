@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.mappers.film;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.diagnostics.RequestDiagnostics;
 import ru.yandex.practicum.filmorate.model.FilmGenres;
 
 import java.sql.ResultSet;
@@ -13,13 +14,13 @@ import java.sql.SQLException;
 public class FilmGenresRowMapper implements RowMapper<FilmGenres> {
     @Override
     public FilmGenres mapRow(ResultSet rs, int rowNum) throws SQLException {
-        log.info("FilmGenresRowMapper started");
         FilmGenres filmGenres = FilmGenres.builder()
                 .filmId(rs.getLong("film_id"))
                 .genreId(rs.getInt("genre_id"))
                 .build();
-        log.info("FilmGenresRowMapper finished");
-        log.info("filmGenres -> {}", filmGenres);
+        if (RequestDiagnostics.isActive()) {
+            log.info("filmGenres -> {}", filmGenres);
+        }
         return filmGenres;
     }
 }
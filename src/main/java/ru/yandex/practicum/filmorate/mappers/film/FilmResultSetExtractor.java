@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.mappers.film;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Собирает фильмы из строк films LEFT JOIN film_genres: по строке на жанр фильма или одна строка
+ * с пустым genre_id. Фильм создается по первой своей строке, остальные только добавляют жанры;
+ * порядок фильмов совпадает с порядком строк.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmResultSetExtractor implements ResultSetExtractor<List<Film>> {
+    private final FilmRowMapper filmRowMapper;
+
+    @Override
+    public List<Film> extractData(ResultSet rs) throws SQLException {
+        Map<Long, Film> filmsById = new LinkedHashMap<>();
+        Film current = null;
+        int rowNum = 0;
+        while (rs.next()) {
+            long filmId = rs.getLong("film_id");
+            if (current == null || current.getId() != filmId) {
+                current = filmsById.get(filmId);
+                if (current == null) {
+                    current = filmRowMapper.mapRow(rs, rowNum++);
+                    filmsById.put(filmId, current);
+                }
+            }
+            int genreId = rs.getInt("genre_id");
+            if (!rs.wasNull()) {
+                current.getGenres().add(new Genre(genreId, rs.getString("genre_name")));
+            }
+        }
+        return new ArrayList<>(filmsById.values());
+    }
+
+}
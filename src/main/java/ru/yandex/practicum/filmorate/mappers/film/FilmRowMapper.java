@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.mappers.film;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.diagnostics.RequestDiagnostics;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
@@ -14,7 +15,6 @@ import java.sql.SQLException;
 public class FilmRowMapper implements RowMapper<Film> {
     @Override
     public Film mapRow(ResultSet resultSet, int rowNum) throws SQLException {
-        log.info("FilmRowMapper has started: {}", resultSet.toString());
         Film film = new Film();
         film.setId(resultSet.getLong("film_id"));
         film.setName(resultSet.getString("name"));
@@ -26,8 +26,9 @@ public class FilmRowMapper implements RowMapper<Film> {
         mpa.setId(resultSet.getInt("rating_id"));
         mpa.setName(resultSet.getString("rating"));
         film.setMpa(mpa);
-        log.info("Фильм после обработки  FilmRowMapper -> {}", film);
-        log.info("FilmRowMapper finish");
+        if (RequestDiagnostics.isActive()) {
+            log.info("Фильм после обработки FilmRowMapper, строка {} -> {}", rowNum, film);
+        }
         return film;
     }
 
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.mappers.film;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.diagnostics.RequestDiagnostics;
 import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.sql.ResultSet;
@@ -13,12 +14,12 @@ import java.sql.SQLException;
 public class GenreRowMapper implements RowMapper<Genre> {
     @Override
     public Genre mapRow(ResultSet resultSet, int rowNum) throws SQLException {
-        log.info("GenreRowMapper has stated");
         Genre genre = new Genre();
         genre.setId(resultSet.getInt("genre_id"));
         genre.setName(resultSet.getString("name"));
-        log.info("GenreRowMapper has finished");
-        log.info("genre -> {}", genre);
+        if (RequestDiagnostics.isActive()) {
+            log.info("Жанр после обработки GenreRowMapper -> {}", genre);
+        }
         return genre;
     }
 
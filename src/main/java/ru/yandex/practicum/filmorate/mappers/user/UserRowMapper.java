@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.mappers.user;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.diagnostics.RequestDiagnostics;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.ResultSet;
@@ -13,15 +14,15 @@ import java.sql.SQLException;
 public class UserRowMapper implements RowMapper<User> {
     @Override
     public User mapRow(ResultSet resultSet, int rowNum) throws SQLException {
-        log.info("UserRowMapper has started");
         User user = new User();
         user.setId(resultSet.getLong("user_id"));
         user.setEmail(resultSet.getString("email"));
         user.setLogin(resultSet.getString("login"));
         user.setName(resultSet.getString("name"));
         user.setBirthday(resultSet.getDate("birthday").toLocalDate());
-        log.info("UserRowMapper has started");
-        log.info("UserRowMapper has finished");
+        if (RequestDiagnostics.isActive()) {
+            log.info("Пользователь после обработки UserRowMapper, строка {} -> {}", rowNum, user);
+        }
         return user;
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportChunkReport {
+    private static final int MAX_ERRORS = 100;
+
+    private int chunk;
+    private long firstLine;
+    private long lastLine;
+    private long accepted;
+    private long rejected;
+    private List<String> errors = new ArrayList<>();
+
+    public ImportChunkReport(int chunk, long firstLine) {
+        this.chunk = chunk;
+        this.firstLine = firstLine;
+    }
+
+    public void accept(long count) {
+        accepted += count;
+    }
+
+    public void reject(long line, String error) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("Строка " + line + ": " + error);
+        }
+    }
+
+}
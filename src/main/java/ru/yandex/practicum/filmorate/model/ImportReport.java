@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private String entity;
+    private long accepted;
+    private long rejected;
+    private List<ImportChunkReport> chunks = new ArrayList<>();
+
+    public ImportReport(String entity) {
+        this.entity = entity;
+    }
+
+    public void addChunk(ImportChunkReport chunk) {
+        chunks.add(chunk);
+        accepted += chunk.getAccepted();
+        rejected += chunk.getRejected();
+    }
+
+}
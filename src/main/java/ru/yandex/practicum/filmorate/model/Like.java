@@ -9,8 +9,8 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class FilmGenreInfo {
+public class Like {
     private Long filmId;
-    private FilmGenres filmGenres;
-    private Genre genre;
+    private Long userId;
+
 }
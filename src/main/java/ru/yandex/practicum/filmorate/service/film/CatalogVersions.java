@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.AfterCommit;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версии каталога фильмов для ETag. Версия фильма - значение счетчика каталога на момент его последнего
+ * изменения, поэтому отдельного счетчика на фильм не нужно. Метка старта приложения в тегах отсекает
+ * теги, выданные до перезапуска, когда счетчики начинаются заново.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Map<Long, Long> filmVersions = new ConcurrentHashMap<>();
+    private final ReferenceDataCache referenceDataCache;
+
+    public String catalogTag() {
+        return epoch + "-c" + catalogVersion.get();
+    }
+
+    public String filmTag(long filmId) {
+        return epoch + "-f" + filmId + "-" + filmVersions.getOrDefault(filmId, 0L);
+    }
+
+    public String referenceTag() {
+        return epoch + "-r" + referenceDataCache.getVersion();
+    }
+
+    public void filmChanged(long filmId) {
+        // Повышаем версию только после коммита: иначе читатель может закешировать старые данные под новым тегом
+        AfterCommit.run(() -> filmVersions.put(filmId, catalogVersion.incrementAndGet()));
+    }
+
+    public void catalogChanged() {
+        AfterCommit.run(catalogVersion::incrementAndGet);
+    }
+
+}
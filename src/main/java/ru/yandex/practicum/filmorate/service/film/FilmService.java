@@ -3,13 +3,15 @@ package ru.yandex.practicum.filmorate.service.film;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.config.diagnostics.RequestDiagnostics;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
-import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.user.UserService;
+import ru.yandex.practicum.filmorate.storage.AfterCommit;
 import ru.yandex.practicum.filmorate.storage.film.*;
 
 import java.time.LocalDate;
@@ -23,59 +25,57 @@ import java.util.stream.Collectors;
 public class FilmService {
     private final FilmStorage filmStorage;
     private final UserService userService;
-    private final LikeDbStorage likeDbStorage;
-    private final MpaDbStorage mpaDbStorage;
-    private final GenreDbStorage genreDbStorage;
-    private final FilmGenresDbStorage filmGenresDbStorage;
+    private final LikeStorage likeStorage;
+    private final FilmGenresStorage filmGenresStorage;
+    private final FilmPopularityIndex filmPopularityIndex;
+    private final ReferenceDataCache referenceDataCache;
+    private final LikesMatrix likesMatrix;
+    private final CatalogVersions catalogVersions;
+    private final FilmSearchIndex filmSearchIndex;
 
     public Film findById(Long filmId) {
         log.info("Запрос в сервис на получение фильма id {} -> ", filmId);
         Film film = filmStorage.findById(filmId).orElseThrow(() ->
                 new NotFoundException("фильм с id не найден"));
 
-        genreDbStorage.setGenresToFilms(List.of(film));
-        log.info("Найден фильм : {}", film);
+        if (RequestDiagnostics.isActive()) {
+            log.info("Найден фильм : {}", film);
+        }
         return film;
     }
 
     public List<Film> findAll() {
         log.info("Запрос в сервис на получение всех фильмов");
         List<Film> films = filmStorage.findAll();
-        genreDbStorage.setGenresToFilms(films);
-        log.info("Список фильмов: {}", films);
+        if (RequestDiagnostics.isActive()) {
+            log.info("Список фильмов: {}", films);
+        }
         return films;
     }
 
+    public List<Film> findPage(long afterId, int limit) {
+        log.info("Запрос в сервис на получение {} фильмов после id {}", limit, afterId);
+        return filmStorage.findPage(afterId, limit);
+    }
+
+    @Transactional
     public Film create(Film film) {
         log.info("Запрос в сервис на создание фильма {}", film);
-        log.info("Валидация даты релиза при создании фильма");
-        if (!isDateReleaseValidate(film.getReleaseDate())) {
-            String errorMessage = "Дата релиза не может быть до 28-12-1895";
-            log.info("Ошибка валидации при создании фильма: {}", errorMessage);
-            throw new ValidationException(errorMessage);
-        }
-
-        log.info("Валидация рейтинга при создании фильма -> {}", film.getMpa());
-        Mpa mpa = mpaDbStorage.findMpaById(film.getMpa().getId()).orElseThrow(() ->
-                new NotFoundException("MPA с id не найден"));
-
-        log.info("Валидация списка жанров при создании фильма -> {}", film.getGenres());
-        Collection<Integer> genresIds = film.getGenres().stream()
-                .map(Genre::getId)
-                .collect(Collectors.toSet());
-        List<Genre> existGenres = genreDbStorage.findGenresByIds(genresIds);
-
-        if (existGenres.size() != film.getGenres().size()) {
-            throw new NotFoundException("Жанр не найден");
-        }
+        validateNewFilm(film);
 
         filmStorage.create(film);
 
-        filmGenresDbStorage.create(film.getId(), film.getGenres());
+        filmGenresStorage.create(film.getId(), film.getGenres());
+        AfterCommit.run(() -> {
+            filmPopularityIndex.register(film);
+            filmSearchIndex.index(film);
+        });
+        catalogVersions.catalogChanged();
         log.info("Фильм создан -> {}", film);
         return film;
     }
 
+    @Transactional
     public Film update(Film updatedFilm) {
         log.info("Запрос в сервис на обновление фильма -> {}", updatedFilm);
         Long id = updatedFilm.getId();
@@ -86,11 +86,7 @@ public class FilmService {
             throw new ValidationException(errorMessage);
         }
 
-        Film oldFilm = filmStorage.findById(id)
-                .orElseThrow(() ->
-                        new NotFoundException("Фильм с id: " + id + " не найден"));
-        log.trace("Фильм до обновления: {}", oldFilm);
-
+        // Проверки рейтинга и жанров идут по кешу справочников, существование фильма проверяет сам UPDATE
         log.info("Валидация даты релиза при обновлении фильма");
         LocalDate newReleaseDate = updatedFilm.getReleaseDate();
         if (newReleaseDate != null) {
@@ -102,71 +98,162 @@ public class FilmService {
         }
 
         log.info("Валидация рейтинга при обновлении фильма -> {}", updatedFilm.getMpa());
-        Mpa mpa = mpaDbStorage.findMpaById(updatedFilm.getMpa().getId()).orElseThrow(() ->
+        referenceDataCache.findMpaById(updatedFilm.getMpa().getId()).orElseThrow(() ->
                 new NotFoundException("MPA с id не найден"));
-        log.info("Фильм обновлен -> {}", updatedFilm);
 
+        log.info("Валидация списка жанров при обновлении фильма -> {}", updatedFilm.getGenres());
+        validateGenres(updatedFilm);
+
+        if (!filmStorage.update(updatedFilm)) {
+            throw new NotFoundException("Фильм с id: " + id + " не найден");
+        }
         //Сохранение в таблицу film_genres
-        filmGenresDbStorage.save(updatedFilm.getId(), updatedFilm.getGenres());
+        filmGenresStorage.save(updatedFilm.getId(), updatedFilm.getGenres());
+        AfterCommit.run(() -> {
+            filmPopularityIndex.register(updatedFilm);
+            filmSearchIndex.index(updatedFilm);
+        });
+        catalogVersions.filmChanged(id);
         log.info("Фильм успешно обновлен -> {}", updatedFilm);
-        return filmStorage.save(updatedFilm);
+        return updatedFilm;
     }
 
     public void addLike(long filmId, long userId) {
         log.info("Запрос на добавление лайка фильму");
-        Film film = filmStorage.findById(filmId)
-                .orElseThrow(() -> new NotFoundException("Фильм с id: " + filmId + " не найден"));
-        User user = userService.findById(userId);
+        checkFilmExists(filmId);
+        userService.findById(userId);
 
-        likeDbStorage.addLike(filmId, userId);
+        likeStorage.addLike(filmId, userId);
+        catalogVersions.catalogChanged();
     }
 
     public void deleteLike(long filmId, long userId) {
         log.info("Запрос в сервис на удаление лайка фильму");
-        Film film = filmStorage.findById(filmId)
-                .orElseThrow(() -> new NotFoundException("Фильм с id: " + filmId + " не найден"));
-        User user = userService.findById(userId);
+        checkFilmExists(filmId);
+        userService.findById(userId);
 
-        likeDbStorage.deleteLike(filmId, userId);
+        likeStorage.deleteLike(filmId, userId);
+        catalogVersions.catalogChanged();
     }
 
     public List<Film> getPopularFilms(int count) {
-        log.info("Запрос в сервис на получение списка популярных фильмов");
-        List<Film> popularFilms = filmStorage.getPopularFilms(count);
-        log.trace("Список {} самых популярных фильмов: {}", count, popularFilms);
+        return getPopularFilms(count, null, null, null);
+    }
+
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer mpaId, Integer year) {
+        log.info("Запрос в сервис на получение списка популярных фильмов: жанр {}, рейтинг {}, год {}",
+                genreId, mpaId, year);
+        if (count <= 0 || count > FilmPopularityIndex.MAX_POPULAR) {
+            throw new ValidationException("count должен быть от 1 до " + FilmPopularityIndex.MAX_POPULAR);
+        }
+        List<Film> popularFilms = filmPopularityIndex.getTop(count, genreId, mpaId, year)
+                .map(filmStorage::findByIds)
+                .orElseGet(() -> {
+                    log.info("Редкая комбинация фильтров, популярные фильмы читаются из хранилища");
+                    return filmStorage.getPopularFilms(count, genreId, mpaId, year);
+                });
+        if (RequestDiagnostics.isActive()) {
+            log.info("Список {} самых популярных фильмов: {}", count, popularFilms);
+        }
         return popularFilms;
     }
 
+    public List<Film> search(String query, int offset, int limit) {
+        log.info("Запрос в сервис на поиск фильмов по запросу '{}', смещение {}, лимит {}", query, offset, limit);
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+        if (offset < 0) {
+            throw new ValidationException("Смещение не может быть отрицательным");
+        }
+        List<Film> films = filmStorage.findByIds(filmSearchIndex.search(query, offset, limit));
+        if (RequestDiagnostics.isActive()) {
+            log.info("Найдены фильмы по запросу '{}': {}", query, films);
+        }
+        return films;
+    }
+
+    public List<Film> getRecommendations(long userId, int limit) {
+        log.info("Запрос в сервис на получение рекомендаций фильмов для пользователя id {}", userId);
+        if (limit <= 0 || limit > LikesMatrix.MAX_RECOMMENDATIONS) {
+            throw new ValidationException("limit должен быть от 1 до " + LikesMatrix.MAX_RECOMMENDATIONS);
+        }
+        userService.findById(userId);
+
+        List<Film> recommendations = filmStorage.findByIds(likesMatrix.recommend(userId, limit));
+        if (RequestDiagnostics.isActive()) {
+            log.info("Рекомендации фильмов для пользователя {}: {}", userId, recommendations);
+        }
+        return recommendations;
+    }
+
     public List<Mpa> findAllMpa() {
         log.info("Запрос в сервис на получение списка всех жанров");
-        List<Mpa> mpas = mpaDbStorage.findAllMpa();
-        log.trace("Список рейтингов -> {}", mpas);
+        List<Mpa> mpas = referenceDataCache.findAllMpa();
+        if (RequestDiagnostics.isActive()) {
+            log.info("Список рейтингов -> {}", mpas);
+        }
         return mpas;
     }
 
     public Mpa findMpaById(int id) {
         log.info("Запрос в сервис на получение рейтинга по id -> {} ", id);
-        Mpa mpa = mpaDbStorage.findMpaById(id).orElseThrow(() -> new NotFoundException("Рейтинг MPA не найден."));
+        Mpa mpa = referenceDataCache.findMpaById(id).orElseThrow(() -> new NotFoundException("Рейтинг MPA не найден."));
         log.trace("Рейтинг получен -> {}", mpa);
         return mpa;
     }
 
     public List<Genre> findAllGenres() {
         log.info("Запрос в сервис на получение списка всех жанров");
-        List<Genre> genres = genreDbStorage.findAllGenres();
-        log.trace("Список всех жанров -> {}", genres);
+        List<Genre> genres = referenceDataCache.findAllGenres();
+        if (RequestDiagnostics.isActive()) {
+            log.info("Список всех жанров -> {}", genres);
+        }
         return genres;
     }
 
     public Genre findGenreById(int id) {
         log.info("Запрос в сервис на поиск жанра по id -> {} ", id);
-        Genre genre = genreDbStorage.findGenreById(id).orElseThrow(() -> new NotFoundException("Жанр не найден."));
+        Genre genre = referenceDataCache.findGenreById(id).orElseThrow(() -> new NotFoundException("Жанр не найден."));
         log.trace("Получен жанр {} с id -> {}", genre, id);
         return genre;
     }
 
+    public void validateNewFilm(Film film) {
+        log.info("Валидация даты релиза при создании фильма");
+        if (!isDateReleaseValidate(film.getReleaseDate())) {
+            String errorMessage = "Дата релиза не может быть до 28-12-1895";
+            log.info("Ошибка валидации при создании фильма: {}", errorMessage);
+            throw new ValidationException(errorMessage);
+        }
+
+        log.info("Валидация рейтинга при создании фильма -> {}", film.getMpa());
+        referenceDataCache.findMpaById(film.getMpa().getId()).orElseThrow(() ->
+                new NotFoundException("MPA с id не найден"));
+
+        log.info("Валидация списка жанров при создании фильма -> {}", film.getGenres());
+        validateGenres(film);
+    }
+
     public boolean isDateReleaseValidate(LocalDate releaseDate) {
         return releaseDate.isAfter(LocalDate.of(1895, 12, 27));
     }
 
+    private void checkFilmExists(long filmId) {
+        if (!filmStorage.existsById(filmId)) {
+            throw new NotFoundException("Фильм с id: " + filmId + " не найден");
+        }
+    }
+
+    private void validateGenres(Film film) {
+        Collection<Integer> genresIds = film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+        List<Genre> existGenres = referenceDataCache.findGenresByIds(genresIds);
+
+        if (existGenres.size() != film.getGenres().size()) {
+            throw new NotFoundException("Жанр не найден");
+        }
+    }
+
 }
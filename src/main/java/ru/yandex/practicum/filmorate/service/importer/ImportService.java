@@ -0,0 +1,257 @@
+package ru.yandex.practicum.filmorate.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.ImportChunkReport;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.film.CatalogVersions;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+import ru.yandex.practicum.filmorate.service.user.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmGenresStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserTypeaheadIndex;
+import ru.yandex.practicum.filmorate.storage.user.UserUniquenessIndex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportService {
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmGenresStorage filmGenresStorage;
+    private final LikeStorage likeStorage;
+    private final FriendStorage friendStorage;
+    private final FilmPopularityIndex filmPopularityIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final UserUniquenessIndex userUniquenessIndex;
+    private final UserTypeaheadIndex userTypeaheadIndex;
+    private final CatalogVersions catalogVersions;
+
+    @Value("${filmorate.import.batch-size:1000}")
+    private int defaultBatchSize;
+
+    public ImportReport importFilms(InputStream body, Integer batchSize) throws IOException {
+        return importRecords("films", body, batchSize, Film.class,
+                this::validateFilm,
+                films -> {
+                    filmStorage.createAll(films);
+                    filmGenresStorage.createAll(films);
+                },
+                films -> {
+                    films.forEach(filmPopularityIndex::register);
+                    films.forEach(filmSearchIndex::index);
+                    catalogVersions.catalogChanged();
+                });
+    }
+
+    public ImportReport importUsers(InputStream body, Integer batchSize) throws IOException {
+        Set<String> logins = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        return importRecords("users", body, batchSize, User.class,
+                user -> validateUser(user, logins, emails),
+                userStorage::createAll,
+                users -> users.forEach(user -> {
+                    userUniquenessIndex.add(user);
+                    userTypeaheadIndex.add(user);
+                }));
+    }
+
+    public ImportReport importLikes(InputStream body, Integer batchSize) throws IOException {
+        return importRecords("likes", body, batchSize, Like.class,
+                like -> like.getFilmId() == null || like.getUserId() == null
+                        ? "filmId и userId должны быть указаны" : null,
+                likeStorage::addLikes,
+                likes -> catalogVersions.catalogChanged());
+    }
+
+    public ImportReport importFriendships(InputStream body, Integer batchSize) throws IOException {
+        return importRecords("friendships", body, batchSize, Friendship.class,
+                this::validateFriendship,
+                friendStorage::addFriends,
+                friendships -> {
+                });
+    }
+
+    private <T> ImportReport importRecords(String entity, InputStream body, Integer batchSize, Class<T> type,
+                                           Function<T, String> recordValidator,
+                                           Consumer<List<T>> writer,
+                                           Consumer<List<T>> onCommitted) throws IOException {
+        int chunkSize = resolveBatchSize(batchSize);
+        log.info("Импорт {}: начало, размер пакета {}", entity, chunkSize);
+        ImportReport report = new ImportReport(entity);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        List<T> records = new ArrayList<>(chunkSize);
+        List<Long> recordLines = new ArrayList<>(chunkSize);
+        ImportChunkReport chunk = new ImportChunkReport(1, 1);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            T parsed;
+            try {
+                parsed = objectMapper.readValue(line, type);
+            } catch (JsonProcessingException e) {
+                chunk.reject(lineNumber, "некорректный JSON: " + e.getOriginalMessage());
+                continue;
+            }
+
+            String error = validateConstraints(parsed);
+            if (error == null) {
+                error = recordValidator.apply(parsed);
+            }
+            if (error != null) {
+                chunk.reject(lineNumber, error);
+                continue;
+            }
+
+            records.add(parsed);
+            recordLines.add(lineNumber);
+            if (records.size() >= chunkSize) {
+                chunk.setLastLine(lineNumber);
+                writeChunk(entity, records, recordLines, chunk, writer, onCommitted);
+                report.addChunk(chunk);
+                records = new ArrayList<>(chunkSize);
+                recordLines = new ArrayList<>(chunkSize);
+                chunk = new ImportChunkReport(chunk.getChunk() + 1, lineNumber + 1);
+            }
+        }
+
+        if (!records.isEmpty() || chunk.getRejected() > 0) {
+            chunk.setLastLine(lineNumber);
+            writeChunk(entity, records, recordLines, chunk, writer, onCommitted);
+            report.addChunk(chunk);
+        }
+        log.info("Импорт {}: завершен, принято {}, отклонено {}", entity, report.getAccepted(), report.getRejected());
+        return report;
+    }
+
+    private <T> void writeChunk(String entity, List<T> records, List<Long> recordLines, ImportChunkReport chunk,
+                                Consumer<List<T>> writer, Consumer<List<T>> onCommitted) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.accept(records));
+            onCommitted.accept(records);
+            chunk.accept(records.size());
+            log.info("Импорт {}: пакет {} записан, записей {}", entity, chunk.getChunk(), records.size());
+        } catch (DataAccessException e) {
+            log.warn("Импорт {}: пакет {} отклонен базой, повтор по одной записи -> {}",
+                    entity, chunk.getChunk(), e.getMostSpecificCause().getMessage());
+            for (int i = 0; i < records.size(); i++) {
+                List<T> single = List.of(records.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writer.accept(single));
+                    onCommitted.accept(single);
+                    chunk.accept(1);
+                } catch (DataAccessException recordException) {
+                    chunk.reject(recordLines.get(i), recordException.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private <T> String validateConstraints(T value) {
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private String validateFilm(Film film) {
+        if (film.getReleaseDate() == null) {
+            return "Дата релиза должна быть указана";
+        }
+        try {
+            filmService.validateNewFilm(film);
+            return null;
+        } catch (ValidationException | NotFoundException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String validateUser(User user, Set<String> logins, Set<String> emails) {
+        if (user.getBirthday() == null) {
+            return "Дата рождения должна быть указана";
+        }
+        try {
+            userService.validateNewUser(user);
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+        if (!logins.add(user.getLogin())) {
+            return "Логин: " + user.getLogin() + " повторяется в импорте";
+        }
+        if (!emails.add(user.getEmail())) {
+            logins.remove(user.getLogin());
+            return "Email: " + user.getEmail() + " повторяется в импорте";
+        }
+        return null;
+    }
+
+    private String validateFriendship(Friendship friendship) {
+        if (friendship.getUserId() == null || friendship.getFriendId() == null) {
+            return "userId и friendId должны быть указаны";
+        }
+        if (friendship.getUserId().equals(friendship.getFriendId())) {
+            return "Пользователь не может добавить в друзья самого себя";
+        }
+        return null;
+    }
+
+    private int resolveBatchSize(Integer batchSize) {
+        int size = batchSize == null ? defaultBatchSize : batchSize;
+        if (size <= 0 || size > MAX_BATCH_SIZE) {
+            throw new ValidationException("Размер пакета должен быть от 1 до " + MAX_BATCH_SIZE);
+        }
+        return size;
+    }
+
+}
@@ -2,12 +2,17 @@ package ru.yandex.practicum.filmorate.service.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.config.diagnostics.RequestDiagnostics;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.storage.user.FriendDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendSuggestions;
+import ru.yandex.practicum.filmorate.storage.user.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserTypeaheadIndex;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserUniquenessIndex;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,7 +22,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserService {
     private final UserStorage userStorage;
-    private final FriendDbStorage friendDbStorage;
+    private final FriendStorage friendStorage;
+    private final UserUniquenessIndex userUniquenessIndex;
+    private final UserTypeaheadIndex userTypeaheadIndex;
 
     public User findById(long userId) {
         User user = userStorage.findById(userId)
@@ -29,7 +36,25 @@ public class UserService {
         return userStorage.findAll();
     }
 
+    public List<User> findPage(long afterId, int limit) {
+        return userStorage.findPage(afterId, limit);
+    }
+
     public User create(User user) {
+        validateNewUser(user);
+
+        try {
+            userStorage.create(user);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUserException(e);
+        }
+        userUniquenessIndex.add(user);
+        userTypeaheadIndex.add(user);
+
+        return user;
+    }
+
+    public void validateNewUser(User user) {
         String login = user.getLogin();
 
         if (isLoginExists(login)) {
@@ -38,7 +63,7 @@ public class UserService {
             throw new ValidationException(errorMessage);
         }
 
-        if (user.getName().isEmpty() || user.getName().isBlank()) {
+        if (user.getName() == null || user.getName().isBlank()) {
             user.setName(login);
         }
 
@@ -53,15 +78,13 @@ public class UserService {
             log.error("Ошибка валидации создания пользователя: {}", errorMessage);
             throw new ValidationException(errorMessage);
         }
-
-        userStorage.create(user);
-
-        return user;
     }
 
     public User update(User updatedUser) {
         log.info("Запрос на обновление пользователя id -> {} в сервисе", updatedUser.getId());
-        log.info("-> {}", updatedUser);
+        if (RequestDiagnostics.isActive()) {
+            log.info("-> {}", updatedUser);
+        }
 
         Long id = updatedUser.getId();
         if (id == null) {
@@ -106,14 +129,22 @@ public class UserService {
             }
         }
 
-        return userStorage.save(updatedUser);
+        User savedUser;
+        try {
+            savedUser = userStorage.save(updatedUser);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUserException(e);
+        }
+        userUniquenessIndex.replace(oldUser, savedUser);
+        userTypeaheadIndex.add(savedUser);
+        return savedUser;
     }
 
     public void addFriend(long userId, long friendId) {
         User user = userStorage.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id: " + userId + " не найден"));
         User friend = userStorage.findById(friendId).orElseThrow(() -> new NotFoundException("Пользователь с id: " + friendId + " не найден"));
 
-        friendDbStorage.addFriend(userId, friendId);
+        friendStorage.addFriend(userId, friendId);
     }
 
     public void deleteFriend(long userId, long friendId) {
@@ -122,16 +153,15 @@ public class UserService {
         User friend = userStorage.findById(friendId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id: " + friendId + " не найден"));
 
-        friendDbStorage.deleteFriend(userId, friendId);
+        friendStorage.deleteFriend(userId, friendId);
     }
 
     public List<User> getUserFriends(long userId) {
         log.info("Запрос в сервис на получение списка друзей");
-        log.info(userStorage.findById(userId).toString());
         User user = userStorage.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Ошибка сервиса Пользователь с id: " + userId + " не найден"));
 
-        List<User> friends = friendDbStorage.getUserFriends(userId);
+        List<User> friends = friendStorage.getUserFriends(userId);
         return friends;
     }
 
@@ -141,16 +171,45 @@ public class UserService {
         User otherUser = userStorage.findById(otherUserId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id: " + otherUserId + " не найден"));
 
-        List<User> commonFriends = friendDbStorage.findCommonFriends(userId, otherUserId);
-        log.trace("Список общих друзей пользователей {} и {}: {}", userId, otherUserId, commonFriends);
+        List<User> commonFriends = friendStorage.findCommonFriends(userId, otherUserId);
+        if (RequestDiagnostics.isActive()) {
+            log.info("Список общих друзей пользователей {} и {}: {}", userId, otherUserId, commonFriends);
+        }
         return commonFriends;
     }
 
+    public List<User> getSuggestions(long userId, int limit) {
+        if (limit <= 0 || limit > FriendSuggestions.MAX_SUGGESTIONS) {
+            throw new ValidationException("limit должен быть от 1 до " + FriendSuggestions.MAX_SUGGESTIONS);
+        }
+        userStorage.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id: " + userId + " не найден"));
+
+        List<User> suggestions = friendStorage.findSuggestions(userId, limit);
+        if (RequestDiagnostics.isActive()) {
+            log.info("Рекомендации друзей для пользователя {}: {}", userId, suggestions);
+        }
+        return suggestions;
+    }
+
+    public List<User> typeahead(String prefix, int limit) {
+        log.info("Запрос в сервис на подсказки пользователей по префиксу '{}'", prefix);
+        if (prefix == null || prefix.isBlank()) {
+            throw new ValidationException("Префикс не может быть пустым");
+        }
+        if (limit <= 0 || limit > UserTypeaheadIndex.MAX_RESULTS) {
+            throw new ValidationException("limit должен быть от 1 до " + UserTypeaheadIndex.MAX_RESULTS);
+        }
+        List<User> users = userStorage.findByIds(userTypeaheadIndex.search(prefix, limit, friendStorage::countFriends));
+        if (RequestDiagnostics.isActive()) {
+            log.info("Подсказки пользователей по префиксу '{}': {}", prefix, users);
+        }
+        return users;
+    }
+
     private boolean isLoginExists(String login) {
         log.info("Проверка логина на уникальность");
-        return findAll().stream()
-                .map(User::getLogin)
-                .anyMatch(existLogin -> existLogin.equals(login));
+        return userUniquenessIndex.containsLogin(login) || userStorage.existsByLogin(login);
     }
 
     private boolean isEmptyEmail(String email) {
@@ -160,9 +219,13 @@ public class UserService {
 
     private boolean isEmailExists(String email) {
         log.info("Проверка email на уникальность");
-        return findAll().stream()
-                .map(User::getEmail)
-                .anyMatch(existEmail -> existEmail.equals(email));
+        return userUniquenessIndex.containsEmail(email) || userStorage.existsByEmail(email);
+    }
+
+    private ValidationException duplicateUserException(DuplicateKeyException e) {
+        String errorMessage = "Логин или email уже заняты";
+        log.error("Ошибка валидации: {} -> {}", errorMessage, e.getMessage());
+        return new ValidationException(errorMessage);
     }
 
 }
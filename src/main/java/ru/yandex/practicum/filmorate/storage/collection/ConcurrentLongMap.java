@@ -0,0 +1,301 @@
+package ru.yandex.practicum.filmorate.storage.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+public class ConcurrentLongMap<V> {
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long EMPTY = 0;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final Stripe<V>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    public V get(long key) {
+        checkKey(key);
+        Stripe<V> stripe = stripeFor(key);
+        StampedLock lock = stripe.lock;
+        // Оптимистичное чтение без блокировки, при конкурентной записи повторяем под read-lock
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            V value = stripe.find(key);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return stripe.find(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        checkKey(key);
+        Stripe<V> stripe = stripeFor(key);
+        long stamp = stripe.lock.writeLock();
+        try {
+            return stripe.put(key, value);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    public V putIfAbsent(long key, V value) {
+        checkKey(key);
+        Stripe<V> stripe = stripeFor(key);
+        long stamp = stripe.lock.writeLock();
+        try {
+            V current = stripe.find(key);
+            if (current == null) {
+                stripe.put(key, value);
+            }
+            return current;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    public V compute(long key, UnaryOperator<V> remapping) {
+        checkKey(key);
+        Stripe<V> stripe = stripeFor(key);
+        long stamp = stripe.lock.writeLock();
+        try {
+            V current = stripe.find(key);
+            V updated = remapping.apply(current);
+            if (updated == null) {
+                if (current != null) {
+                    stripe.remove(key);
+                }
+            } else {
+                stripe.put(key, updated);
+            }
+            return updated;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    public V remove(long key) {
+        checkKey(key);
+        Stripe<V> stripe = stripeFor(key);
+        long stamp = stripe.lock.writeLock();
+        try {
+            return stripe.remove(key);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        for (Stripe<V> stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                stripe.collectValues(values);
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return values;
+    }
+
+    public long[] keys() {
+        List<Long> keys = new ArrayList<>();
+        for (Stripe<V> stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                stripe.collectKeys(keys);
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public void clear() {
+        for (Stripe<V> stripe : stripes) {
+            long stamp = stripe.lock.writeLock();
+            try {
+                stripe.clear();
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private Stripe<V> stripeFor(long key) {
+        return stripes[(int) ((key * GOLDEN_RATIO) >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Ключ 0 зарезервирован");
+        }
+    }
+
+    private static final class Stripe<V> {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private V find(long key) {
+            long[] currentKeys = keys;
+            Object[] currentValues = values;
+            if (currentKeys.length != currentValues.length) {
+                return null;
+            }
+            int mask = currentKeys.length - 1;
+            int index = slot(key, mask);
+            for (int probe = 0; probe < currentKeys.length; probe++) {
+                long current = currentKeys[index];
+                if (current == key) {
+                    return (V) currentValues[index];
+                }
+                if (current == EMPTY) {
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V put(long key, V value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int index = slot(key, mask);
+            while (keys[index] != EMPTY) {
+                if (keys[index] == key) {
+                    V previous = (V) values[index];
+                    values[index] = value;
+                    return previous;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            size++;
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V remove(long key) {
+            int mask = keys.length - 1;
+            int index = slot(key, mask);
+            while (keys[index] != key) {
+                if (keys[index] == EMPTY) {
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+            V previous = (V) values[index];
+
+            // Обратный сдвиг цепочки линейного пробирования вместо "надгробий"
+            int hole = index;
+            int next = index;
+            while (true) {
+                next = (next + 1) & mask;
+                long current = keys[next];
+                if (current == EMPTY) {
+                    break;
+                }
+                int home = slot(current, mask);
+                boolean staysInPlace = hole <= next
+                        ? hole < home && home <= next
+                        : hole < home || home <= next;
+                if (!staysInPlace) {
+                    keys[hole] = current;
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = EMPTY;
+            values[hole] = null;
+            size--;
+            return previous;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void collectValues(List<V> target) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    target.add((V) values[i]);
+                }
+            }
+        }
+
+        private void collectKeys(List<Long> target) {
+            for (long key : keys) {
+                if (key != EMPTY) {
+                    target.add(key);
+                }
+            }
+        }
+
+        private void clear() {
+            keys = new long[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[capacity];
+            Object[] newValues = new Object[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int index = slot(oldKeys[i], mask);
+                    while (newKeys[index] != EMPTY) {
+                        index = (index + 1) & mask;
+                    }
+                    newKeys[index] = oldKeys[i];
+                    newValues[index] = oldValues[i];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.storage.collection;
+
+/**
+ * Счетчик по long-ключам на открытой адресации без упаковки в объекты. Ключ 0 зарезервирован.
+ * Не потокобезопасен, рассчитан на использование внутри одного запроса.
+ */
+public final class LongIntCounter {
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    public LongIntCounter(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+    }
+
+    public void increment(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, int delta) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                counts[index] += delta;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        counts[index] = delta;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    public int get(long key) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return counts[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return 0;
+    }
+
+    public void addAll(LongIntCounter other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.counts[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает до limit ключей по убыванию счетчика, при равенстве по возрастанию ключа.
+     */
+    public long[] top(int limit) {
+        int resultSize = Math.max(0, Math.min(limit, size));
+        long[] topKeys = new long[resultSize];
+        int[] topCounts = new int[resultSize];
+        int filled = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY) {
+                continue;
+            }
+            long key = keys[i];
+            int count = counts[i];
+            int position = filled;
+            while (position > 0 && isBefore(key, count, topKeys[position - 1], topCounts[position - 1])) {
+                position--;
+            }
+            if (position >= resultSize) {
+                continue;
+            }
+            int last = Math.min(filled, resultSize - 1);
+            System.arraycopy(topKeys, position, topKeys, position + 1, last - position);
+            System.arraycopy(topCounts, position, topCounts, position + 1, last - position);
+            topKeys[position] = key;
+            topCounts[position] = count;
+            if (filled < resultSize) {
+                filled++;
+            }
+        }
+        return topKeys;
+    }
+
+    private static boolean isBefore(long key, int count, long otherKey, int otherCount) {
+        return count > otherCount || (count == otherCount && key < otherKey);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = slot(oldKeys[i], mask);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                counts[index] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.storage.collection;
+
+import java.util.Arrays;
+
+public final class SortedLongArrays {
+    public static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    public static boolean contains(long[] values, long value) {
+        return values != null && Arrays.binarySearch(values, value) >= 0;
+    }
+
+    public static long[] insert(long[] values, long value) {
+        long[] source = values == null ? EMPTY : values;
+        int index = Arrays.binarySearch(source, value);
+        if (index >= 0) {
+            return source;
+        }
+        int position = -index - 1;
+        long[] result = new long[source.length + 1];
+        System.arraycopy(source, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(source, position, result, position + 1, source.length - position);
+        return result;
+    }
+
+    public static long[] remove(long[] values, long value) {
+        if (values == null) {
+            return EMPTY;
+        }
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return values;
+        }
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    public static long[] intersect(long[] first, long[] second) {
+        if (first == null || second == null) {
+            return EMPTY;
+        }
+        long[] result = new long[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+}
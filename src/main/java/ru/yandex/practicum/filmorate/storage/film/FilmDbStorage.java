@@ -2,25 +2,47 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
-import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.mappers.film.FilmResultSetExtractor;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
 @Component("filmDbStorage")
+@Profile("!in-memory")
 public class FilmDbStorage implements FilmStorage {
+    private static final String FILM_COLUMNS = "film_id, name, description, release_date, duration, rating_id, " +
+            "likes_count";
+    // Фильм, его рейтинг и жанры одним запросом: по строке на жанр, %s - таблица films или выборка из нее
+    private static final String FILMS_WITH_GENRES_QUERY = "SELECT f.film_id, f.name, f.description, " +
+            "f.release_date, f.duration, m.rating_id, m.name AS rating, g.genre_id, g.name AS genre_name " +
+            "FROM %s f " +
+            "LEFT JOIN mpa m ON f.rating_id = m.rating_id " +
+            "LEFT JOIN film_genres fg ON f.film_id = fg.film_id " +
+            "LEFT JOIN genres g ON fg.genre_id = g.genre_id";
+    private static final int FILM_IDS_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
-    private final FilmRowMapper filmRowMapper;
+    private final FilmResultSetExtractor filmResultSetExtractor;
 
     @Override
     public Film create(Film film) {
@@ -45,33 +67,64 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
-    public Film save(Film film) {
+    public List<Film> createAll(List<Film> films) {
+        log.info("Запрос в хранилище на пакетное создание {} фильмов", films.size());
+        if (films.isEmpty()) {
+            return films;
+        }
+        String query = "INSERT INTO films (name, description, release_date, duration, rating_id) VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(query, new String[]{"film_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Film film = films.get(i);
+                        ps.setString(1, film.getName());
+                        ps.setString(2, film.getDescription());
+                        ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+                        ps.setLong(4, film.getDuration());
+                        ps.setInt(5, film.getMpa().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            films.get(i).setId(id.longValue());
+        }
+        return films;
+    }
+
+    @Override
+    public boolean update(Film film) {
         log.info("Запрос в хранилище на обновление фильма");
-        String query = "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ? WHERE film_id = ?";
+        String query = "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, rating_id = ? " +
+                "WHERE film_id = ?";
         log.debug("query: {}", query);
         log.debug("new film: {}", film);
-        jdbcTemplate.update(query, film.getName(), film.getDescription(),
-                film.getReleaseDate(), film.getDuration(), film.getId());
-        return film;
+        return jdbcTemplate.update(query, film.getName(), film.getDescription(),
+                film.getReleaseDate(), film.getDuration(), film.getMpa().getId(), film.getId()) > 0;
     }
 
     @Override
     public Optional<Film> findById(long filmId) {
-        log.info("Запрос в хранилище на поиск фильма filmId: {}", filmId);
-        String query = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, m.rating_id, m.name AS rating, " +
-                "FROM films f " +
-                "LEFT JOIN mpa m ON f.rating_id = m.rating_id " +
-                "WHERE f.film_id = ? " +
-                "GROUP BY f.film_id";
+        log.debug("Запрос в хранилище на поиск фильма filmId: {}", filmId);
+        String query = String.format(FILMS_WITH_GENRES_QUERY, "films") + " WHERE f.film_id = ?";
 
         try {
-            List<Film> results = jdbcTemplate.query(query, filmRowMapper, filmId);
+            List<Film> results = jdbcTemplate.query(query, filmResultSetExtractor, filmId);
 
             if (results.isEmpty()) {
-                log.info("Фильм с id {} не найден.", filmId);
+                log.debug("Фильм с id {} не найден.", filmId);
                 return Optional.empty();
             } else {
-                log.info("Фильм с id {} успешно найден.", filmId);
+                log.debug("Фильм с id {} успешно найден.", filmId);
                 return Optional.of(results.getFirst());
             }
         } catch (Exception e) {
@@ -80,38 +133,82 @@ public class FilmDbStorage implements FilmStorage {
         }
     }
 
+    @Override
+    public boolean existsById(long filmId) {
+        String query = "SELECT EXISTS(SELECT 1 FROM films WHERE film_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, filmId));
+    }
+
     @Override
     public List<Film> findAll() {
-        log.info("Запрос в хранилище на получение всех фильмов");
-        String query = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, m.rating_id, m.name AS rating, " +
-                "GROUP_CONCAT(g.genre_id || ':' || g.name SEPARATOR ',') AS genres " +
-                "FROM films f " +
-                "LEFT JOIN mpa m ON f.rating_id = m.rating_id " +
-                "LEFT JOIN film_genres fg ON f.film_id = fg.film_id " +
-                "LEFT JOIN genres g ON fg.genre_id = g.genre_id " +
-                "GROUP BY f.film_id";
-
-        return jdbcTemplate.query(query, filmRowMapper);
+        log.debug("Запрос в хранилище на получение всех фильмов");
+        String query = String.format(FILMS_WITH_GENRES_QUERY, "films") + " ORDER BY f.film_id";
+        return jdbcTemplate.query(query, filmResultSetExtractor);
     }
 
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        log.debug("Запрос в хранилище на получение {} фильмов после id {}", limit, afterId);
+        // LIMIT применяется к фильмам во вложенном запросе, а не к строкам с жанрами
+        String films = "(SELECT " + FILM_COLUMNS + " FROM films WHERE film_id > ? ORDER BY film_id LIMIT ?)";
+        String query = String.format(FILMS_WITH_GENRES_QUERY, films) + " ORDER BY f.film_id";
+        return jdbcTemplate.query(query, filmResultSetExtractor, afterId, limit);
+    }
+
+    @Override
+    public List<Film> findByIds(Collection<Long> filmIds) {
+        log.debug("Запрос в хранилище на получение фильмов по списку id, количество: {}", filmIds.size());
+        if (filmIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(filmIds);
+        Map<Long, Film> filmsById = new HashMap<>(ids.size());
+        String query = String.format(FILMS_WITH_GENRES_QUERY, "films") + " WHERE f.film_id IN (%s)";
+        for (int from = 0; from < ids.size(); from += FILM_IDS_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + FILM_IDS_BATCH_SIZE, ids.size()));
+            String inSql = String.join(",", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query(String.format(query, inSql), filmResultSetExtractor, batch.toArray())
+                    .forEach(film -> filmsById.put(film.getId(), film));
+        }
+
+        return ids.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
     public List<Film> getPopularFilms(int count) {
-        log.info("Запрос на получение популярных фильмов");
-        String query = """
-                SELECT f.film_id, f.name, f.description, f.release_date, f.duration,\s
-                       f.rating_id, m.name as rating,\s
-                       COUNT(l.film_id) as likes_count,\s
-                       GROUP_CONCAT(g.genre_id || ':' || g.name SEPARATOR ',') AS genres\s
-                FROM films f\s
-                LEFT JOIN mpa m ON f.rating_id = m.rating_id\s
-                LEFT JOIN likes l ON f.film_id = l.film_id\s
-                LEFT JOIN film_genres fg ON f.film_id = fg.film_id\s
-                LEFT JOIN genres g ON fg.genre_id = g.genre_id\s
-                GROUP BY f.film_id, f.name, f.description, f.release_date, f.duration,\s
-                         f.rating_id, m.name\s
-                ORDER BY likes_count DESC\s
-                LIMIT ?\s
-                """;
-        return jdbcTemplate.query(query, filmRowMapper, count);
+        log.debug("Запрос на получение популярных фильмов");
+        // Топ читается по индексу films_likes_count_idx во вложенном запросе, жанры присоединяются только к нему
+        String films = "(SELECT " + FILM_COLUMNS + " FROM films ORDER BY likes_count DESC, film_id LIMIT ?)";
+        String query = String.format(FILMS_WITH_GENRES_QUERY, films) + " ORDER BY f.likes_count DESC, f.film_id";
+        return jdbcTemplate.query(query, filmResultSetExtractor, count);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer mpaId, Integer year) {
+        log.debug("Запрос на получение популярных фильмов: жанр {}, рейтинг {}, год {}", genreId, mpaId, year);
+        StringBuilder films = new StringBuilder("(SELECT " + FILM_COLUMNS + " FROM films ff WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (genreId != null) {
+            films.append(" AND EXISTS (SELECT 1 FROM film_genres fg WHERE fg.film_id = ff.film_id AND fg.genre_id = ?)");
+            args.add(genreId);
+        }
+        if (mpaId != null) {
+            films.append(" AND ff.rating_id = ?");
+            args.add(mpaId);
+        }
+        if (year != null) {
+            // Диапазон по дате, а не EXTRACT(YEAR ...), чтобы работал индекс films_release_date_idx
+            films.append(" AND ff.release_date >= ? AND ff.release_date < ?");
+            args.add(Date.valueOf(LocalDate.of(year, 1, 1)));
+            args.add(Date.valueOf(LocalDate.of(year + 1, 1, 1)));
+        }
+        films.append(" ORDER BY ff.likes_count DESC, ff.film_id LIMIT ?)");
+        args.add(count);
+        String query = String.format(FILMS_WITH_GENRES_QUERY, films) + " ORDER BY f.likes_count DESC, f.film_id";
+        return jdbcTemplate.query(query, filmResultSetExtractor, args.toArray());
     }
 
 }
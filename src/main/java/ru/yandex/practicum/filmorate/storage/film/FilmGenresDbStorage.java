@@ -2,36 +2,68 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.mappers.film.FilmGenresRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.FilmGenres;
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
 @Repository
-public class FilmGenresDbStorage {
+@Profile("!in-memory")
+public class FilmGenresDbStorage implements FilmGenresStorage {
     private final JdbcTemplate jdbcTemplate;
     private final FilmGenresRowMapper filmGenresRowMapper;
 
+    @Override
     public void create(Long filmId, HashSet<Genre> genres) {
         log.info("Запрос на добавление данных в film_genres");
-        String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+        insertGenres(filmId, toGenreIds(genres));
+    }
 
-        for (Genre genre : genres) {
-            jdbcTemplate.update(sql, filmId, genre.getId());
+    @Override
+    public void createAll(List<Film> films) {
+        List<FilmGenres> filmGenres = films.stream()
+                .flatMap(film -> toGenreIds(film.getGenres()).stream()
+                        .map(genreId -> new FilmGenres(film.getId(), genreId)))
+                .toList();
+        log.info("Запрос на пакетное добавление {} записей в film_genres", filmGenres.size());
+        if (filmGenres.isEmpty()) {
+            return;
         }
+        String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, filmGenres, filmGenres.size(), (ps, filmGenre) -> {
+            ps.setLong(1, filmGenre.getFilmId());
+            ps.setInt(2, filmGenre.getGenreId());
+        });
     }
 
+    @Override
     public void save(Long filmId, HashSet<Genre> genres) {
         log.info("Запрос на обновление данных в film_genres");
-        String sql = "UPDATE users SET film_id = ?, genre_id = ? WHERE film_id = ?";
-        for (Genre genre : genres) {
-            jdbcTemplate.update(sql, filmId, genre.getId());
-        }
+        Set<Integer> newGenreIds = toGenreIds(genres);
+        Set<Integer> oldGenreIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT genre_id FROM film_genres WHERE film_id = ?", Integer.class, filmId));
+
+        List<Integer> removedGenreIds = oldGenreIds.stream()
+                .filter(genreId -> !newGenreIds.contains(genreId))
+                .toList();
+        List<Integer> addedGenreIds = newGenreIds.stream()
+                .filter(genreId -> !oldGenreIds.contains(genreId))
+                .toList();
+        log.debug("Жанры фильма {}: удаляются {}, добавляются {}", filmId, removedGenreIds, addedGenreIds);
+
+        deleteGenres(filmId, removedGenreIds);
+        insertGenres(filmId, addedGenreIds);
     }
 
     public void delete(FilmGenres filmGenre) {
@@ -40,5 +72,35 @@ public class FilmGenresDbStorage {
         jdbcTemplate.update(sql, filmGenre.getFilmId(), filmGenre.getGenreId());
     }
 
-}
+    private void insertGenres(long filmId, Collection<Integer> genreIds) {
+        if (genreIds.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, genreIds, genreIds.size(), (ps, genreId) -> {
+            ps.setLong(1, filmId);
+            ps.setInt(2, genreId);
+        });
+    }
+
+    private void deleteGenres(long filmId, Collection<Integer> genreIds) {
+        if (genreIds.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?";
+        jdbcTemplate.batchUpdate(sql, genreIds, genreIds.size(), (ps, genreId) -> {
+            ps.setLong(1, filmId);
+            ps.setInt(2, genreId);
+        });
+    }
 
+    private Set<Integer> toGenreIds(Collection<Genre> genres) {
+        if (genres == null) {
+            return new HashSet<>();
+        }
+        return genres.stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+    }
+
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.HashSet;
+import java.util.List;
+
+public interface FilmGenresStorage {
+
+    void create(Long filmId, HashSet<Genre> genres);
+
+    void createAll(List<Film> films);
+
+    void save(Long filmId, HashSet<Genre> genres);
+
+}
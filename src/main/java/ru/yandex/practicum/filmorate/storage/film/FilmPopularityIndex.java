@@ -0,0 +1,421 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Рейтинг популярности фильмов в памяти: общий и отдельный для каждого жанра, рейтинга MPA и года выхода.
+ * Срезы обновляются вместе с общим рейтингом при каждом изменении лайков или атрибутов фильма.
+ * Перестроение собирает новый рейтинг в стороне и подменяет его одной ссылкой, поэтому читатели
+ * не видят пустого или частичного топа. Изменения лайков держат блокировку изменений от коммита
+ * в базе до применения в памяти ({@link #afterCommit(Runnable)}, {@link #guard(Runnable)}): перестроение
+ * читает базу либо до коммита, либо после применения, и лайк не учитывается дважды.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmPopularityIndex {
+    public static final int MAX_POPULAR = 1_000;
+
+    private static final String STORED_LIKES_COUNT_QUERY = "SELECT film_id, likes_count, rating_id, release_date FROM films";
+    private static final String FILM_GENRES_QUERY = "SELECT film_id, genre_id FROM film_genres";
+    private static final String LIKES_COUNT_QUERY = "SELECT f.film_id, COUNT(l.user_id) AS likes_count " +
+            "FROM films f " +
+            "LEFT JOIN likes l ON f.film_id = l.film_id " +
+            "GROUP BY f.film_id";
+
+    // Сколько фильмов среза просматривается при комбинации фильтров, прежде чем уступить запросу в базу
+    private static final int MAX_FILTERED_SCAN = 10_000;
+
+    private static final Comparator<Score> RANKING_ORDER = Comparator
+            .comparingLong(Score::likes).reversed()
+            .thenComparingLong(Score::filmId);
+
+    private final JdbcTemplate jdbcTemplate;
+    // Изменения берут блокировку на чтение и идут параллельно, перестроение - на запись
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile Rankings rankings = new Rankings();
+
+    public void rebuild() {
+        rebuild(() -> {
+        });
+    }
+
+    /**
+     * Перестраивает рейтинг по столбцу films.likes_count. beforeLoad выполняется, когда изменения уже
+     * остановлены, но база еще не прочитана: так отложенная запись успевает сбросить буфер и
+     * ни один лайк не теряется между чтением базы и подменой рейтинга.
+     */
+    public void rebuild(Runnable beforeLoad) {
+        rebuildLock.writeLock().lock();
+        try {
+            beforeLoad.run();
+            log.info("Перестроение рейтинга популярности фильмов по столбцу films.likes_count");
+            Map<Long, List<Integer>> genresByFilm = new HashMap<>();
+            jdbcTemplate.query(FILM_GENRES_QUERY, rs -> {
+                genresByFilm.computeIfAbsent(rs.getLong("film_id"), id -> new ArrayList<>())
+                        .add(rs.getInt("genre_id"));
+            });
+
+            Rankings rebuilt = new Rankings();
+            jdbcTemplate.query(STORED_LIKES_COUNT_QUERY, rs -> {
+                long filmId = rs.getLong("film_id");
+                int[] genreIds = genresByFilm.getOrDefault(filmId, List.of()).stream()
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                Facets facets = Facets.of(rs.getInt("rating_id"),
+                        rs.getDate("release_date").toLocalDate().getYear(), genreIds);
+                Entry entry = new Entry(rs.getLong("likes_count"), facets);
+                rebuilt.entries.put(filmId, entry);
+                rebuilt.add(filmId, entry.likes(), facets.keys());
+            });
+            rankings = rebuilt;
+            log.info("Рейтинг популярности перестроен, фильмов в рейтинге: {}, срезов: {}",
+                    rebuilt.entries.size(), rebuilt.facets.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Применяет изменение рейтинга после коммита текущей транзакции. Блокировка изменений берется перед
+     * коммитом и отпускается после применения, поэтому перестроение не попадет между коммитом лайка
+     * и его учетом в памяти. Без транзакции изменение применяется сразу.
+     */
+    public void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guard(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                rebuildLock.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!locked) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        change.run();
+                    }
+                } finally {
+                    locked = false;
+                    rebuildLock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Выполняет action под блокировкой изменений: перестроение не начнется, пока action не завершится.
+     */
+    public void guard(Runnable action) {
+        rebuildLock.readLock().lock();
+        try {
+            action.run();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void register(long filmId) {
+        rebuildLock.readLock().lock();
+        try {
+            Rankings current = rankings;
+            current.entries.computeIfAbsent(filmId, id -> {
+                current.ranking.add(new Score(id, 0));
+                return new Entry(0, Facets.NONE);
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Регистрирует фильм или переносит его между срезами после изменения жанров, рейтинга или даты выхода.
+     */
+    public void register(Film film) {
+        Facets facets = Facets.of(film);
+        rebuildLock.readLock().lock();
+        try {
+            Rankings current = rankings;
+            current.entries.compute(film.getId(), (id, old) -> {
+                long likes = old == null ? 0 : old.likes();
+                long[] oldKeys = old == null ? Facets.NONE.keys() : old.facets().keys();
+                // Как и при смене лайков: сначала добавляем в новые срезы, затем убираем из тех, где фильма больше нет
+                current.add(id, likes, facets.keys());
+                for (long key : oldKeys) {
+                    if (!facets.contains(key)) {
+                        current.facet(key).remove(new Score(id, likes));
+                    }
+                }
+                return new Entry(likes, facets);
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void increment(long filmId) {
+        change(filmId, 1);
+    }
+
+    public void decrement(long filmId) {
+        change(filmId, -1);
+    }
+
+    public long getLikes(long filmId) {
+        Entry entry = rankings.entries.get(filmId);
+        return entry == null ? 0 : entry.likes();
+    }
+
+    public int size() {
+        return rankings.entries.size();
+    }
+
+    public List<Long> getTop(int count) {
+        Rankings current = rankings;
+        return collectTop(current, current.ranking, count, Facets.NONE.keys()).orElseThrow();
+    }
+
+    /**
+     * Топ фильмов с фильтрами по жанру, рейтингу MPA и году выхода (null - без фильтра). Один фильтр
+     * отвечает прямо из своего среза. Для комбинации обходится срез с наименьшим числом фильмов
+     * с проверкой остальных условий;
+     * если подходящих фильмов в нем слишком мало, возвращается пустой Optional и нужно идти в базу.
+     */
+    public Optional<List<Long>> getTop(int count, Integer genreId, Integer mpaId, Integer year) {
+        List<Long> wanted = new ArrayList<>(3);
+        if (year != null) {
+            wanted.add(Facets.key(Facets.YEAR, year));
+        }
+        if (genreId != null) {
+            wanted.add(Facets.key(Facets.GENRE, genreId));
+        }
+        if (mpaId != null) {
+            wanted.add(Facets.key(Facets.MPA, mpaId));
+        }
+        if (wanted.isEmpty()) {
+            return Optional.of(getTop(count));
+        }
+        Rankings current = rankings;
+        int narrowest = 0;
+        List<FacetRanking> facets = new ArrayList<>(wanted.size());
+        for (long key : wanted) {
+            FacetRanking facet = current.facets.get(key);
+            if (facet == null) {
+                return Optional.of(new ArrayList<>());
+            }
+            facets.add(facet);
+            if (facet.size() < facets.get(narrowest).size()) {
+                narrowest = facets.size() - 1;
+            }
+        }
+        List<Long> others = new ArrayList<>(wanted);
+        others.remove(narrowest);
+        long[] requiredKeys = others.stream().mapToLong(Long::longValue).toArray();
+        return collectTop(current, facets.get(narrowest).scores, count, requiredKeys);
+    }
+
+    public Map<Long, Long> findInconsistencies() {
+        log.info("Сверка рейтинга популярности с таблицей likes");
+        Map<Long, Long> expected = new HashMap<>();
+        jdbcTemplate.query(LIKES_COUNT_QUERY, rs -> {
+            expected.put(rs.getLong("film_id"), rs.getLong("likes_count"));
+        });
+
+        Map<Long, Entry> entries = rankings.entries;
+        Map<Long, Long> inconsistencies = new HashMap<>();
+        expected.forEach((filmId, likes) -> {
+            Entry entry = entries.get(filmId);
+            if (entry == null || entry.likes() != likes) {
+                inconsistencies.put(filmId, likes);
+            }
+        });
+        entries.keySet().stream()
+                .filter(filmId -> !expected.containsKey(filmId))
+                .forEach(filmId -> inconsistencies.put(filmId, 0L));
+
+        if (!inconsistencies.isEmpty()) {
+            log.warn("Рейтинг популярности расходится с таблицей likes для фильмов: {}", inconsistencies.keySet());
+        }
+        return inconsistencies;
+    }
+
+    private Optional<List<Long>> collectTop(Rankings current, ConcurrentSkipListSet<Score> source, int count,
+                                            long[] requiredKeys) {
+        Set<Long> top = new LinkedHashSet<>(Math.max(count, 0));
+        int scanned = 0;
+        for (Score score : source) {
+            if (top.size() >= count) {
+                break;
+            }
+            if (requiredKeys.length == 0) {
+                top.add(score.filmId());
+                continue;
+            }
+            if (++scanned > MAX_FILTERED_SCAN) {
+                return Optional.empty();
+            }
+            Entry entry = current.entries.get(score.filmId());
+            if (entry != null && entry.facets().containsAll(requiredKeys)) {
+                top.add(score.filmId());
+            }
+        }
+        return Optional.of(new ArrayList<>(top));
+    }
+
+    private void change(long filmId, long delta) {
+        rebuildLock.readLock().lock();
+        try {
+            Rankings rankings = this.rankings;
+            rankings.entries.compute(filmId, (id, old) -> {
+                long current = old == null ? 0 : old.likes();
+                long updated = Math.max(0, current + delta);
+                Facets facets = old == null ? Facets.NONE : old.facets();
+                // Новая позиция добавляется до удаления старой, чтобы читатель не потерял фильм из топа
+                rankings.add(id, updated, facets.keys());
+                if (old != null && updated != current) {
+                    Score previous = new Score(id, current);
+                    rankings.ranking.remove(previous);
+                    for (long key : facets.keys()) {
+                        rankings.facet(key).remove(previous);
+                    }
+                }
+                return new Entry(updated, facets);
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Записи фильмов, общий рейтинг и срезы. Подменяется целиком при перестроении.
+     */
+    private static final class Rankings {
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListSet<Score> ranking = new ConcurrentSkipListSet<>(RANKING_ORDER);
+        private final Map<Long, FacetRanking> facets = new ConcurrentHashMap<>();
+
+        private void add(long filmId, long likes, long[] keys) {
+            Score score = new Score(filmId, likes);
+            ranking.add(score);
+            for (long key : keys) {
+                facet(key).add(score);
+            }
+        }
+
+        private FacetRanking facet(long key) {
+            return facets.computeIfAbsent(key, k -> new FacetRanking());
+        }
+    }
+
+    /**
+     * Рейтинг одного среза со счетчиком фильмов: size() у ConcurrentSkipListSet обходит весь набор.
+     */
+    private static final class FacetRanking {
+        private final ConcurrentSkipListSet<Score> scores = new ConcurrentSkipListSet<>(RANKING_ORDER);
+        private final AtomicInteger size = new AtomicInteger();
+
+        private void add(Score score) {
+            if (scores.add(score)) {
+                size.incrementAndGet();
+            }
+        }
+
+        private void remove(Score score) {
+            if (scores.remove(score)) {
+                size.decrementAndGet();
+            }
+        }
+
+        private int size() {
+            return size.get();
+        }
+    }
+
+    private record Score(long filmId, long likes) {
+    }
+
+    private record Entry(long likes, Facets facets) {
+    }
+
+    /**
+     * Ключи срезов фильма: тип среза в старших 32 битах, значение в младших.
+     */
+    private record Facets(long[] keys) {
+        private static final int GENRE = 1;
+        private static final int MPA = 2;
+        private static final int YEAR = 3;
+        private static final Facets NONE = new Facets(new long[0]);
+
+        private static Facets of(Film film) {
+            int mpaId = film.getMpa() == null ? 0 : film.getMpa().getId();
+            int year = film.getReleaseDate() == null ? 0 : film.getReleaseDate().getYear();
+            int[] genreIds = film.getGenres() == null ? new int[0] : film.getGenres().stream()
+                    .mapToInt(Genre::getId)
+                    .toArray();
+            return of(mpaId, year, genreIds);
+        }
+
+        private static Facets of(int mpaId, int year, int[] genreIds) {
+            long[] keys = new long[genreIds.length + 2];
+            keys[0] = key(MPA, mpaId);
+            keys[1] = key(YEAR, year);
+            for (int i = 0; i < genreIds.length; i++) {
+                keys[i + 2] = key(GENRE, genreIds[i]);
+            }
+            return new Facets(Arrays.stream(keys).distinct().toArray());
+        }
+
+        private static long key(int type, int value) {
+            return ((long) type << Integer.SIZE) | (value & 0xFFFFFFFFL);
+        }
+
+        private boolean contains(long key) {
+            for (long current : keys) {
+                if (current == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean containsAll(long[] required) {
+            for (long key : required) {
+                if (!contains(key)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,253 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Инвертированный индекс по названию и описанию фильмов. Индексируются слова целиком и их триграммы,
+ * поэтому находятся и части слов. Списки вхождений - отсортированные массивы id с весами, которые
+ * заменяются целиком при изменении, так что чтение идет без блокировок.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int GRAM = 3;
+    // Доля триграмм слова запроса, которая должна совпасть, чтобы засчитать частичное совпадение
+    private static final double MIN_GRAM_COVERAGE = 0.6;
+    private static final double PARTIAL_MATCH_FACTOR = 0.5;
+    private static final String GRAM_PREFIX = "#";
+
+    private final FilmStorage filmStorage;
+    private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> termsByFilm = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.lock();
+        try {
+            log.info("Построение поискового индекса по фильмам");
+            postings.clear();
+            termsByFilm.clear();
+            List<Film> films = filmStorage.findAll();
+            films.forEach(this::index);
+            log.info("Поисковый индекс построен: фильмов {}, термов {}", termsByFilm.size(), postings.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет фильм в индекс или переиндексирует его после изменения названия или описания.
+     */
+    public void index(Film film) {
+        lock.lock();
+        try {
+            long filmId = film.getId();
+            remove(filmId);
+
+            Map<String, Integer> weights = new HashMap<>();
+            addTerms(weights, film.getName(), NAME_WEIGHT);
+            addTerms(weights, film.getDescription(), DESCRIPTION_WEIGHT);
+            weights.forEach((term, weight) -> postings.compute(term, (key, current) ->
+                    (current == null ? Postings.EMPTY : current).with(filmId, weight)));
+            termsByFilm.put(filmId, weights.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(long filmId) {
+        lock.lock();
+        try {
+            Set<String> terms = termsByFilm.remove(filmId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                postings.computeIfPresent(term, (key, current) -> current.without(filmId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return termsByFilm.size();
+    }
+
+    /**
+     * Ищет фильмы по словам запроса и возвращает страницу id по убыванию релевантности. Точное совпадение
+     * слова весит больше частичного, совпадение в названии - больше, чем в описании.
+     */
+    public List<Long> search(String query, int offset, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int films = Math.max(termsByFilm.size(), 1);
+        Map<Long, Double> scores = new HashMap<>();
+        for (String token : new LinkedHashSet<>(tokens)) {
+            Postings exact = postings.get(token);
+            if (exact != null) {
+                exact.addScores(scores, idf(films, exact.size()));
+            }
+            if (token.length() >= GRAM) {
+                addPartialScores(scores, token, films, exact);
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .skip(offset)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void addPartialScores(Map<Long, Double> scores, String token, int films, Postings exact) {
+        List<String> grams = grams(token);
+        Map<Long, int[]> matches = new HashMap<>();
+        for (String gram : grams) {
+            Postings gramPostings = postings.get(GRAM_PREFIX + gram);
+            if (gramPostings == null) {
+                continue;
+            }
+            for (int i = 0; i < gramPostings.filmIds().length; i++) {
+                int[] match = matches.computeIfAbsent(gramPostings.filmIds()[i], id -> new int[2]);
+                match[0]++;
+                match[1] = Math.max(match[1], gramPostings.weights()[i]);
+            }
+        }
+
+        int required = (int) Math.ceil(grams.size() * MIN_GRAM_COVERAGE);
+        double idf = idf(films, matches.size());
+        matches.forEach((filmId, match) -> {
+            if (match[0] < required || exact != null && exact.contains(filmId)) {
+                return;
+            }
+            double coverage = (double) match[0] / grams.size();
+            scores.merge(filmId, PARTIAL_MATCH_FACTOR * coverage * match[1] * idf, Double::sum);
+        });
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+            if (token.length() >= GRAM) {
+                for (String gram : grams(token)) {
+                    weights.merge(GRAM_PREFIX + gram, weight, Math::max);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> grams(String token) {
+        List<String> grams = new ArrayList<>(token.length() - GRAM + 1);
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static double idf(int films, int documentFrequency) {
+        return Math.log(1 + (double) films / Math.max(documentFrequency, 1));
+    }
+
+    /**
+     * Отсортированные id фильмов и веса терма в них.
+     */
+    private record Postings(long[] filmIds, int[] weights) {
+        private static final Postings EMPTY = new Postings(new long[0], new int[0]);
+
+        private int size() {
+            return filmIds.length;
+        }
+
+        private boolean contains(long filmId) {
+            return Arrays.binarySearch(filmIds, filmId) >= 0;
+        }
+
+        private Postings with(long filmId, int weight) {
+            int index = Arrays.binarySearch(filmIds, filmId);
+            if (index >= 0) {
+                int[] newWeights = weights.clone();
+                newWeights[index] = weight;
+                return new Postings(filmIds, newWeights);
+            }
+            int position = -index - 1;
+            long[] newIds = new long[filmIds.length + 1];
+            int[] newWeights = new int[weights.length + 1];
+            System.arraycopy(filmIds, 0, newIds, 0, position);
+            System.arraycopy(weights, 0, newWeights, 0, position);
+            newIds[position] = filmId;
+            newWeights[position] = weight;
+            System.arraycopy(filmIds, position, newIds, position + 1, filmIds.length - position);
+            System.arraycopy(weights, position, newWeights, position + 1, weights.length - position);
+            return new Postings(newIds, newWeights);
+        }
+
+        // null удаляет терм из индекса, когда в нем не осталось фильмов
+        private Postings without(long filmId) {
+            int index = Arrays.binarySearch(filmIds, filmId);
+            if (index < 0) {
+                return this;
+            }
+            if (filmIds.length == 1) {
+                return null;
+            }
+            long[] newIds = new long[filmIds.length - 1];
+            int[] newWeights = new int[weights.length - 1];
+            System.arraycopy(filmIds, 0, newIds, 0, index);
+            System.arraycopy(weights, 0, newWeights, 0, index);
+            System.arraycopy(filmIds, index + 1, newIds, index, filmIds.length - index - 1);
+            System.arraycopy(weights, index + 1, newWeights, index, weights.length - index - 1);
+            return new Postings(newIds, newWeights);
+        }
+
+        private void addScores(Map<Long, Double> scores, double idf) {
+            for (int i = 0; i < filmIds.length; i++) {
+                scores.merge(filmIds[i], weights[i] * idf, Double::sum);
+            }
+        }
+    }
+
+}
@@ -2,19 +2,39 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Хранилище фильмов. Методы чтения возвращают фильмы вместе с рейтингом MPA и жанрами.
+ */
 public interface FilmStorage {
 
     Film create(Film film);
 
-    Film save(Film film);
+    List<Film> createAll(List<Film> films);
+
+    /**
+     * Обновляет фильм одним запросом и сообщает, существовал ли он.
+     */
+    boolean update(Film film);
 
     Optional<Film> findById(long filmId);
 
+    boolean existsById(long filmId);
+
     List<Film> findAll();
 
+    List<Film> findPage(long afterId, int limit);
+
+    List<Film> findByIds(Collection<Long> filmIds);
+
     List<Film> getPopularFilms(int count);
 
+    /**
+     * Популярные фильмы с фильтрами по жанру, рейтингу MPA и году выхода; null означает отсутствие фильтра.
+     */
+    List<Film> getPopularFilms(int count, Integer genreId, Integer mpaId, Integer year);
+
 }
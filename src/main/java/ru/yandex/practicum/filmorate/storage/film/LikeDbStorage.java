@@ -1,21 +1,75 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Repository
+@Profile("!in-memory")
 @RequiredArgsConstructor
-public class LikeDbStorage {
+public class LikeDbStorage implements LikeStorage {
+    static final String CHANGE_LIKES_COUNT_SQL = "UPDATE films SET likes_count = likes_count + ? WHERE film_id = ?";
+    static final String RECOUNT_LIKES_SQL = "UPDATE films f SET likes_count = " +
+            "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id) WHERE f.film_id = ?";
+
     private final JdbcTemplate jdbcTemplate;
+    private final FilmPopularityIndex filmPopularityIndex;
+    private final LikesMatrix likesMatrix;
 
+    @Override
+    @Transactional
     public void addLike(long filmId, long userId) {
         String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
         jdbcTemplate.update(sql, filmId, userId);
+        jdbcTemplate.update(CHANGE_LIKES_COUNT_SQL, 1, filmId);
+        filmPopularityIndex.afterCommit(() -> {
+            filmPopularityIndex.increment(filmId);
+            likesMatrix.add(filmId, userId);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void addLikes(List<Like> likes) {
+        if (likes.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, likes, likes.size(), (ps, like) -> {
+            ps.setLong(1, like.getFilmId());
+            ps.setLong(2, like.getUserId());
+        });
+        List<Map.Entry<Long, Long>> likesByFilm = List.copyOf(likes.stream()
+                .collect(Collectors.groupingBy(Like::getFilmId, Collectors.counting()))
+                .entrySet());
+        jdbcTemplate.batchUpdate(CHANGE_LIKES_COUNT_SQL, likesByFilm, likesByFilm.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+        filmPopularityIndex.afterCommit(() -> likes.forEach(like -> {
+            filmPopularityIndex.increment(like.getFilmId());
+            likesMatrix.add(like.getFilmId(), like.getUserId());
+        }));
     }
 
+    @Override
+    @Transactional
     public void deleteLike(long filmId, long userId) {
         String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+        int deleted = jdbcTemplate.update(sql, filmId, userId);
+        if (deleted > 0) {
+            jdbcTemplate.update(CHANGE_LIKES_COUNT_SQL, -1, filmId);
+            filmPopularityIndex.afterCommit(() -> {
+                filmPopularityIndex.decrement(filmId);
+                likesMatrix.remove(filmId, userId);
+            });
+        }
     }
 }
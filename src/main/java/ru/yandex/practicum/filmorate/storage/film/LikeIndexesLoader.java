@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Заполняет рейтинг популярности и матрицу лайков из базы при старте. В профиле in-memory хранилища
+ * начинают с пустых данных, поэтому индексы тоже стартуют пустыми и наполняются по мере записи.
+ */
+@Component
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class LikeIndexesLoader {
+    private final FilmPopularityIndex filmPopularityIndex;
+    private final LikesMatrix likesMatrix;
+
+    @PostConstruct
+    public void load() {
+        filmPopularityIndex.rebuild();
+        likesMatrix.rebuild();
+    }
+
+}
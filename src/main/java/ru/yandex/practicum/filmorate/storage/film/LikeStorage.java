@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.List;
+
+public interface LikeStorage {
+
+    void addLike(long filmId, long userId);
+
+    void addLikes(List<Like> likes);
+
+    void deleteLike(long filmId, long userId);
+
+}
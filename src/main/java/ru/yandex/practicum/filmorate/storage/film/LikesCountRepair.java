@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.service.film.CatalogVersions;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодическая сверка столбца films.likes_count с таблицей likes. Исправляет только расходящиеся строки
+ * и после исправлений перестраивает рейтинг популярности в памяти и сбрасывает кеши популярных фильмов.
+ */
+@Slf4j
+@Component
+@Profile("!in-memory")
+public class LikesCountRepair {
+    public static final String REPAIR_SQL = "UPDATE films f SET likes_count = " +
+            "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id) " +
+            "WHERE f.likes_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FilmPopularityIndex filmPopularityIndex;
+    private final ObjectProvider<WriteBehindLikeStorage> writeBehindLikeStorage;
+    private final CatalogVersions catalogVersions;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    public LikesCountRepair(JdbcTemplate jdbcTemplate,
+                            FilmPopularityIndex filmPopularityIndex,
+                            ObjectProvider<WriteBehindLikeStorage> writeBehindLikeStorage,
+                            CatalogVersions catalogVersions,
+                            @Value("${filmorate.likes.repair-interval:1h}") Duration interval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.filmPopularityIndex = filmPopularityIndex;
+        this.writeBehindLikeStorage = writeBehindLikeStorage;
+        this.catalogVersions = catalogVersions;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (interval.isZero() || interval.isNegative()) {
+            log.info("Периодическая сверка likes_count отключена");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("likes-count-repair").daemon().factory());
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::repairQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Пересчитывает likes_count по таблице likes и возвращает число исправленных фильмов.
+     */
+    public int repair() {
+        int repaired = jdbcTemplate.update(REPAIR_SQL);
+        if (repaired > 0) {
+            log.warn("Столбец likes_count исправлен для {} фильмов", repaired);
+            rebuildIndex();
+            catalogVersions.catalogChanged();
+        } else {
+            log.info("Столбец likes_count согласован с таблицей likes");
+        }
+        return repaired;
+    }
+
+    private void rebuildIndex() {
+        WriteBehindLikeStorage writeBehind = writeBehindLikeStorage.getIfAvailable();
+        if (writeBehind == null) {
+            filmPopularityIndex.rebuild();
+            return;
+        }
+        // Буфер сбрасывается под блокировкой рейтинга, иначе лайки из буфера выпали бы из перестроенного рейтинга
+        writeBehind.withFlushLock(() -> filmPopularityIndex.rebuild(writeBehind::flush));
+    }
+
+    private void repairQuietly() {
+        try {
+            repair();
+        } catch (RuntimeException e) {
+            log.error("Ошибка сверки likes_count", e);
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.collection.ConcurrentLongMap;
+import ru.yandex.practicum.filmorate.storage.collection.LongIntCounter;
+import ru.yandex.practicum.filmorate.storage.collection.SortedLongArrays;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Матрица лайков в памяти: отсортированные id фильмов по пользователю и id пользователей по фильму.
+ * Используется для рекомендаций по схожести пользователей.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikesMatrix {
+    public static final int MAX_RECOMMENDATIONS = 100;
+
+    private static final String LIKES_QUERY = "SELECT user_id, film_id FROM likes";
+    private static final int NEIGHBOURS = 50;
+    private static final int MAX_LIKERS_PER_FILM = 10_000;
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentLongMap<long[]> filmsByUser = new ConcurrentLongMap<>();
+    private final ConcurrentLongMap<long[]> usersByFilm = new ConcurrentLongMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public void rebuild() {
+        lock.lock();
+        try {
+            log.info("Перестроение матрицы лайков по таблице likes");
+            filmsByUser.clear();
+            usersByFilm.clear();
+            long[] count = new long[1];
+            jdbcTemplate.query(LIKES_QUERY, rs -> {
+                add(rs.getLong("film_id"), rs.getLong("user_id"));
+                count[0]++;
+            });
+            log.info("Матрица лайков перестроена, лайков: {}", count[0]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет лайк и сообщает, был ли он новым. Решение принимается атомарно по списку фильма,
+     * поэтому из двух одновременных одинаковых лайков новым окажется только один.
+     */
+    public boolean add(long filmId, long userId) {
+        boolean[] added = new boolean[1];
+        usersByFilm.compute(filmId, userIds -> {
+            long[] updated = SortedLongArrays.insert(userIds, userId);
+            added[0] = updated != userIds;
+            return updated;
+        });
+        if (added[0]) {
+            filmsByUser.compute(userId, filmIds -> SortedLongArrays.insert(filmIds, filmId));
+        }
+        return added[0];
+    }
+
+    public boolean remove(long filmId, long userId) {
+        boolean[] removed = new boolean[1];
+        usersByFilm.compute(filmId, userIds -> {
+            long[] updated = SortedLongArrays.remove(userIds, userId);
+            removed[0] = userIds != null && updated != userIds;
+            return emptyToNull(updated);
+        });
+        if (removed[0]) {
+            filmsByUser.compute(userId, filmIds -> emptyToNull(SortedLongArrays.remove(filmIds, filmId)));
+        }
+        return removed[0];
+    }
+
+    public int size() {
+        return filmsByUser.size();
+    }
+
+    /**
+     * Возвращает id фильмов, которые лайкнули пользователи с наибольшим пересечением лайков,
+     * без фильмов, уже понравившихся пользователю. Вес фильма равен сумме пересечений соседей.
+     */
+    public List<Long> recommend(long userId, int limit) {
+        long[] likedFilmIds = filmsByUser.get(userId);
+        if (likedFilmIds == null) {
+            return new ArrayList<>();
+        }
+
+        LongIntCounter overlaps = likedFilmIds.length <= SEQUENTIAL_THRESHOLD
+                ? new OverlapTask(userId, likedFilmIds, 0, likedFilmIds.length).compute()
+                : ForkJoinPool.commonPool().invoke(new OverlapTask(userId, likedFilmIds, 0, likedFilmIds.length));
+        long[] neighbours = overlaps.top(NEIGHBOURS);
+
+        LongIntCounter scores = new LongIntCounter(neighbours.length * 16);
+        for (long neighbourId : neighbours) {
+            int overlap = overlaps.get(neighbourId);
+            long[] neighbourFilmIds = filmsByUser.get(neighbourId);
+            if (neighbourFilmIds == null) {
+                continue;
+            }
+            for (long filmId : neighbourFilmIds) {
+                if (Arrays.binarySearch(likedFilmIds, filmId) < 0) {
+                    scores.add(filmId, overlap);
+                }
+            }
+        }
+
+        long[] recommended = scores.top(Math.min(limit, MAX_RECOMMENDATIONS));
+        List<Long> result = new ArrayList<>(recommended.length);
+        for (long filmId : recommended) {
+            result.add(filmId);
+        }
+        return result;
+    }
+
+    private static long[] emptyToNull(long[] values) {
+        return values.length == 0 ? null : values;
+    }
+
+    // Считает пересечение лайков с другими пользователями, деля список фильмов пополам
+    private final class OverlapTask extends RecursiveTask<LongIntCounter> {
+        private final long userId;
+        private final long[] filmIds;
+        private final int from;
+        private final int to;
+
+        private OverlapTask(long userId, long[] filmIds, int from, int to) {
+            this.userId = userId;
+            this.filmIds = filmIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongIntCounter compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                LongIntCounter overlaps = new LongIntCounter((to - from) * 16);
+                for (int i = from; i < to; i++) {
+                    long[] userIds = usersByFilm.get(filmIds[i]);
+                    if (userIds == null) {
+                        continue;
+                    }
+                    int likers = Math.min(userIds.length, MAX_LIKERS_PER_FILM);
+                    for (int j = 0; j < likers; j++) {
+                        if (userIds[j] != userId) {
+                            overlaps.increment(userIds[j]);
+                        }
+                    }
+                }
+                return overlaps;
+            }
+
+            int middle = (from + to) >>> 1;
+            OverlapTask left = new OverlapTask(userId, filmIds, from, middle);
+            OverlapTask right = new OverlapTask(userId, filmIds, middle, to);
+            left.fork();
+            LongIntCounter rightOverlaps = right.compute();
+            LongIntCounter leftOverlaps = left.join();
+            if (leftOverlaps.size() >= rightOverlaps.size()) {
+                leftOverlaps.addAll(rightOverlaps);
+                return leftOverlaps;
+            }
+            rightOverlaps.addAll(leftOverlaps);
+            return rightOverlaps;
+        }
+    }
+
+}
@@ -23,16 +23,16 @@ public class MpaDbStorage {
     }
 
     public Optional<Mpa> findMpaById(int id) {
-        log.info("Ищем MPA с id {} в хранилище", id);
+        log.debug("Ищем MPA с id {} в хранилище", id);
         String query = "SELECT * FROM mpa where rating_id = ?";
-        log.info("query: {}", query);
+        log.debug("query: {}", query);
         List<Mpa> results = jdbcTemplate.query(query, mpaRowMapper, id);
         if (results.isEmpty()) {
 
-            log.info("MPA с id {} не найден.", id);
+            log.debug("MPA с id {} не найден.", id);
             return Optional.empty();
         } else {
-            log.info("MPA с id {} успешно найден.", id);
+            log.debug("MPA с id {} успешно найден.", id);
             return Optional.of(results.getFirst());
         }
     }
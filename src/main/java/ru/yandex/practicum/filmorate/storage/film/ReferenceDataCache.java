@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Справочники MPA и жанров в памяти. Попадание - обращение к загруженному снимку, промах - загрузка
+ * снимка из базы после {@link #invalidate()}; запросы несуществующих id считаются отдельно.
+ * Загрузка идет под {@link ReentrantLock}, а не synchronized, чтобы не закреплять виртуальный поток
+ * на несущем на время запроса к базе.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+    private final MpaDbStorage mpaDbStorage;
+    private final GenreDbStorage genreDbStorage;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder unknownIds = new LongAdder();
+    private final AtomicLong versions = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void refresh() {
+        lock.lock();
+        try {
+            load();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Сброс меняет версию сразу, чтобы теги ответов со справочниками сменились еще до новой загрузки.
+    // Ждет идущую загрузку, иначе она опубликует снимок, прочитанный до изменения
+    public void invalidate() {
+        lock.lock();
+        try {
+            snapshot = null;
+            versions.incrementAndGet();
+            log.info("Кэш справочников сброшен");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Mpa> findAllMpa() {
+        return current().mpas();
+    }
+
+    public Optional<Mpa> findMpaById(int id) {
+        Mpa[] mpaById = current().mpaById();
+        return found(id >= 0 && id < mpaById.length ? mpaById[id] : null);
+    }
+
+    public List<Genre> findAllGenres() {
+        return current().genres();
+    }
+
+    public Optional<Genre> findGenreById(int id) {
+        Genre[] genresById = current().genresById();
+        return found(id >= 0 && id < genresById.length ? genresById[id] : null);
+    }
+
+    public List<Genre> findGenresByIds(Collection<Integer> genreIds) {
+        List<Genre> genres = new ArrayList<>(genreIds.size());
+        for (Integer genreId : genreIds) {
+            findGenreById(genreId).ifPresent(genres::add);
+        }
+        return genres;
+    }
+
+    /**
+     * Версия справочников для тегов ответов. Не считается обращением к кэшу и не запускает загрузку.
+     */
+    public long getVersion() {
+        return versions.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getUnknownIds() {
+        return unknownIds.sum();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        // После сброса справочники загружает только первый поток, остальные получают его снимок
+        lock.lock();
+        try {
+            current = snapshot;
+            if (current == null) {
+                misses.increment();
+                load();
+                current = snapshot;
+            } else {
+                hits.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return current;
+    }
+
+    private void load() {
+        log.info("Загрузка справочников MPA и жанров в кэш");
+        List<Mpa> mpas = mpaDbStorage.findAllMpa().stream()
+                .sorted(Comparator.comparingInt(Mpa::getId))
+                .toList();
+        List<Genre> genres = genreDbStorage.findAllGenres().stream()
+                .sorted(Comparator.comparingInt(Genre::getId))
+                .toList();
+
+        Mpa[] mpaById = new Mpa[mpas.stream().mapToInt(Mpa::getId).max().orElse(0) + 1];
+        mpas.forEach(mpa -> mpaById[mpa.getId()] = mpa);
+        Genre[] genresById = new Genre[genres.stream().mapToInt(Genre::getId).max().orElse(0) + 1];
+        genres.forEach(genre -> genresById[genre.getId()] = genre);
+
+        long version = versions.incrementAndGet();
+        snapshot = new Snapshot(mpas, mpaById, genres, genresById);
+        log.info("Справочники загружены в кэш: MPA {}, жанров {}, версия {}", mpas.size(), genres.size(), version);
+    }
+
+    private <T> Optional<T> found(T value) {
+        if (value == null) {
+            unknownIds.increment();
+        }
+        return Optional.ofNullable(value);
+    }
+
+    private record Snapshot(List<Mpa> mpas, Mpa[] mpaById, List<Genre> genres, Genre[] genresById) {
+    }
+
+}
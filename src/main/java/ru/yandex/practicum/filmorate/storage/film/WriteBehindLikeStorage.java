@@ -0,0 +1,368 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отложенная запись лайков. Индексы в памяти обновляются сразу, а операции копятся в буфере по паре
+ * (фильм, пользователь) и сбрасываются пакетами по размеру или по таймеру. Лайк и последующая отмена
+ * взаимно уничтожаются еще в буфере. Когда буфер полон, сброс выполняет сам вызывающий поток.
+ * У каждой операции свой признак записи, поэтому ошибка записи доходит именно до ее автора.
+ */
+@Slf4j
+@Primary
+@Repository
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+public class WriteBehindLikeStorage implements LikeStorage {
+    private static final String INSERT_SQL = "MERGE INTO likes (film_id, user_id) KEY (film_id, user_id) VALUES (?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+    private static final String FSYNC_SQL = "CHECKPOINT SYNC";
+
+    /**
+     * Когда подтверждать операцию: сразу после попадания в буфер, после коммита пакета с ней
+     * или после коммита и сброса файла базы на диск.
+     */
+    public enum Durability {
+        BUFFERED,
+        COMMIT,
+        FSYNC
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LikeDbStorage likeDbStorage;
+    private final FilmPopularityIndex filmPopularityIndex;
+    private final LikesMatrix likesMatrix;
+    private final Durability durability;
+    private final int batchSize;
+    private final int capacity;
+    private final Duration flushInterval;
+
+    private final Map<LikeKey, PendingOp> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final LongAdder checkpointFailures = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    public WriteBehindLikeStorage(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  LikeDbStorage likeDbStorage,
+                                  FilmPopularityIndex filmPopularityIndex,
+                                  LikesMatrix likesMatrix,
+                                  @Value("${filmorate.likes.write-behind.durability:COMMIT}") Durability durability,
+                                  @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                                  @Value("${filmorate.likes.write-behind.flush-interval:50ms}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Пакет пишется в своей транзакции, даже если сброс вызван изнутри чужой (например, импорта)
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.likeDbStorage = likeDbStorage;
+        this.filmPopularityIndex = filmPopularityIndex;
+        this.likesMatrix = likesMatrix;
+        this.durability = durability;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.flushInterval = flushInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        log.info("Отложенная запись лайков включена: гарантия {}, пакет {}, буфер {}, интервал {}",
+                durability, batchSize, capacity, flushInterval);
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("likes-write-behind").daemon().factory());
+        long interval = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+        flush();
+        log.info("Отложенная запись лайков остановлена, буфер сброшен");
+    }
+
+    @Override
+    public void addLike(long filmId, long userId) {
+        CompletableFuture<Void> written = enqueue(filmId, userId, true);
+        if (written == null) {
+            throw new DuplicateKeyException("Пользователь " + userId + " уже поставил лайк фильму " + filmId);
+        }
+        acknowledge(written);
+    }
+
+    @Override
+    public void addLikes(List<Like> likes) {
+        // Импорт пишет напрямую, поэтому сначала сбрасываем накопленное, чтобы не нарушить порядок операций
+        flush();
+        likeDbStorage.addLikes(likes);
+    }
+
+    @Override
+    public void deleteLike(long filmId, long userId) {
+        CompletableFuture<Void> written = enqueue(filmId, userId, false);
+        if (written != null) {
+            acknowledge(written);
+        }
+    }
+
+    /**
+     * Пишет все накопленные операции одним пакетом. Сбросы выполняются строго по очереди.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushScheduled.set(false);
+            Map<LikeKey, PendingOp> batch = new HashMap<>();
+            List<LikeKey> inserts = new ArrayList<>();
+            List<LikeKey> deletes = new ArrayList<>();
+            pending.forEach((key, op) -> {
+                if (pending.remove(key, op)) {
+                    batch.put(key, op);
+                    (op.liked() ? inserts : deletes).add(key);
+                }
+            });
+            Map<LikeKey, DataAccessException> failures;
+            try {
+                failures = write(inserts, deletes);
+            } catch (RuntimeException e) {
+                // Исход пакета неизвестен вызывающим, поэтому память возвращается к состоянию до операций
+                log.error("Пакет лайков не записан, операции откатаны в памяти", e);
+                batch.forEach((key, op) -> {
+                    revert(key, op.liked());
+                    op.written().completeExceptionally(e);
+                });
+                throw e;
+            }
+            if (durability == Durability.FSYNC && !(inserts.isEmpty() && deletes.isEmpty())) {
+                checkpoint();
+            }
+            batch.forEach((key, op) -> {
+                DataAccessException failure = failures.get(key);
+                if (failure == null) {
+                    op.written().complete(null);
+                } else {
+                    op.written().completeExceptionally(failure);
+                }
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Выполняет action, пока фоновые и групповые сбросы остановлены; внутри можно вызывать flush().
+     * Блокировка сброса берется раньше блокировок индексов, как и при обычном сбросе с откатом операций.
+     */
+    public void withFlushLock(Runnable action) {
+        flushLock.lock();
+        try {
+            action.run();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    public long getCheckpointFailures() {
+        return checkpointFailures.sum();
+    }
+
+    /**
+     * Ставит операцию в буфер и возвращает признак ее записи или null, если операция ничего не меняет.
+     */
+    private CompletableFuture<Void> enqueue(long filmId, long userId, boolean liked) {
+        List<CompletableFuture<Void>> written = new ArrayList<>(1);
+        // Матрица, индекс популярности и буфер меняются под одной блокировкой ключа, поэтому операции по паре
+        // строго чередуются, встречная операция в буфере всегда означает отмену, а сброс с откатом не может
+        // вклиниться между изменением матрицы и индекса. Перестроение индекса ждет, пока операция не попадет в буфер.
+        filmPopularityIndex.guard(() -> pending.compute(new LikeKey(filmId, userId), (key, current) -> {
+            boolean changed = liked ? likesMatrix.add(filmId, userId) : likesMatrix.remove(filmId, userId);
+            if (!changed) {
+                return current;
+            }
+            if (liked) {
+                filmPopularityIndex.increment(filmId);
+            } else {
+                filmPopularityIndex.decrement(filmId);
+            }
+            if (current == null) {
+                PendingOp op = new PendingOp(liked, new CompletableFuture<>());
+                written.add(op.written());
+                return op;
+            }
+            // Отмененной операции писать нечего: ее автор и автор отмены получают подтверждение сразу
+            current.written().complete(null);
+            written.add(CompletableFuture.completedFuture(null));
+            return null;
+        }));
+        return written.isEmpty() ? null : written.getFirst();
+    }
+
+    private void acknowledge(CompletableFuture<Void> written) {
+        int size = pending.size();
+        if (size >= capacity) {
+            log.debug("Буфер лайков заполнен ({}), сброс в вызывающем потоке", size);
+            flush();
+        } else if (size >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+        if (durability == Durability.BUFFERED) {
+            return;
+        }
+
+        // Групповой коммит: кто первым взял блокировку, тот и пишет операции всех ожидающих
+        if (!written.isDone()) {
+            flushLock.lock();
+            try {
+                if (!written.isDone()) {
+                    flush();
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Пишет пакет и возвращает операции, которые не удалось записать и которые откатаны в памяти.
+     */
+    private Map<LikeKey, DataAccessException> write(List<LikeKey> inserts, List<LikeKey> deletes) {
+        Map<LikeKey, DataAccessException> failures = new HashMap<>();
+        if (inserts.isEmpty() && deletes.isEmpty()) {
+            return failures;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batch(DELETE_SQL, deletes);
+                batch(INSERT_SQL, inserts);
+                recountLikes(inserts, deletes);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Пакет лайков отклонен базой, повтор по одной записи -> {}", e.getMostSpecificCause().getMessage());
+            writeOneByOne(inserts, true, failures);
+            writeOneByOne(deletes, false, failures);
+        }
+        log.debug("Записан пакет лайков: добавлено {}, удалено {}, отклонено {}",
+                inserts.size(), deletes.size(), failures.size());
+        return failures;
+    }
+
+    private void writeOneByOne(List<LikeKey> keys, boolean liked, Map<LikeKey, DataAccessException> failures) {
+        for (LikeKey key : keys) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    batch(liked ? INSERT_SQL : DELETE_SQL, List.of(key));
+                    jdbcTemplate.update(LikeDbStorage.RECOUNT_LIKES_SQL, key.filmId());
+                });
+            } catch (DataAccessException e) {
+                log.error("Операция с лайком {} не записана -> {}", key, e.getMostSpecificCause().getMessage());
+                revert(key, liked);
+                failures.put(key, e);
+            }
+        }
+    }
+
+    private void revert(LikeKey key, boolean liked) {
+        filmPopularityIndex.guard(() -> pending.compute(key, (k, current) -> {
+            // Если по паре уже есть новая операция, она сама приведет память и базу к одному состоянию
+            if (current == null) {
+                if (liked && likesMatrix.remove(key.filmId(), key.userId())) {
+                    filmPopularityIndex.decrement(key.filmId());
+                } else if (!liked && likesMatrix.add(key.filmId(), key.userId())) {
+                    filmPopularityIndex.increment(key.filmId());
+                }
+            }
+            return current;
+        }));
+    }
+
+    /**
+     * Сбрасывает файл базы на диск. Данные к этому моменту уже закоммичены, поэтому ошибка сброса
+     * не отменяет операции, а только пишется в журнал и считается в метрике.
+     */
+    private void checkpoint() {
+        try {
+            jdbcTemplate.execute(FSYNC_SQL);
+        } catch (DataAccessException e) {
+            checkpointFailures.increment();
+            log.error("Пакет лайков закоммичен, но файл базы не сброшен на диск -> {}",
+                    e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // Счетчик пересчитывается по таблице likes, а не по дельтам: MERGE не сообщает, была ли строка новой
+    private void recountLikes(List<LikeKey> inserts, List<LikeKey> deletes) {
+        Set<Long> filmIds = new TreeSet<>();
+        inserts.forEach(key -> filmIds.add(key.filmId()));
+        deletes.forEach(key -> filmIds.add(key.filmId()));
+        jdbcTemplate.batchUpdate(LikeDbStorage.RECOUNT_LIKES_SQL, filmIds, batchSize,
+                (ps, filmId) -> ps.setLong(1, filmId));
+    }
+
+    private void batch(String sql, List<LikeKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, keys, batchSize, (ps, key) -> {
+            ps.setLong(1, key.filmId());
+            ps.setLong(2, key.userId());
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка фонового сброса лайков", e);
+        }
+    }
+
+    private record LikeKey(long filmId, long userId) {
+    }
+
+    // liked: true - лайк ждет вставки, false - ждет удаления
+    private record PendingOp(boolean liked, CompletableFuture<Void> written) {
+    }
+
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.collection.ConcurrentLongMap;
+import ru.yandex.practicum.filmorate.storage.film.FilmGenresStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataCache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+@Component
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class InMemoryFilmGenresStorage implements FilmGenresStorage {
+    private final ReferenceDataCache referenceDataCache;
+    private final ConcurrentLongMap<int[]> genresByFilm = new ConcurrentLongMap<>();
+
+    @Override
+    public void create(Long filmId, HashSet<Genre> genres) {
+        save(filmId, genres);
+    }
+
+    @Override
+    public void createAll(List<Film> films) {
+        films.forEach(film -> save(film.getId(), film.getGenres()));
+    }
+
+    @Override
+    public void save(Long filmId, HashSet<Genre> genres) {
+        int[] genreIds = toGenreIds(genres);
+        if (genreIds.length == 0) {
+            genresByFilm.remove(filmId);
+        } else {
+            genresByFilm.put(filmId, genreIds);
+        }
+    }
+
+    public void setGenresToFilms(List<Film> films) {
+        for (Film film : films) {
+            int[] genreIds = genresByFilm.get(film.getId());
+            if (genreIds == null) {
+                continue;
+            }
+            for (int genreId : genreIds) {
+                film.getGenres().add(referenceDataCache.findGenreById(genreId)
+                        .orElse(new Genre(genreId, null)));
+            }
+        }
+    }
+
+    public boolean hasGenre(long filmId, int genreId) {
+        int[] genreIds = genresByFilm.get(filmId);
+        return genreIds != null && Arrays.binarySearch(genreIds, genreId) >= 0;
+    }
+
+    private int[] toGenreIds(Collection<Genre> genres) {
+        if (genres == null) {
+            return new int[0];
+        }
+        return genres.stream()
+                .mapToInt(Genre::getId)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+}
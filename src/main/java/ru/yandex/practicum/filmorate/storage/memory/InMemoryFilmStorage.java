@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.collection.ConcurrentLongMap;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class InMemoryFilmStorage implements FilmStorage {
+    private final ReferenceDataCache referenceDataCache;
+    private final InMemoryLikeStorage likeStorage;
+    private final InMemoryFilmGenresStorage filmGenresStorage;
+    private final ConcurrentLongMap<Film> films = new ConcurrentLongMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @Override
+    public Film create(Film film) {
+        long id = idSequence.incrementAndGet();
+        film.setId(id);
+        films.put(id, copy(film));
+        log.info("Фильм успешно сохранен -> {}", film.getName());
+        return film;
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        films.forEach(this::create);
+        return films;
+    }
+
+    @Override
+    public boolean update(Film film) {
+        if (film.getId() == null || film.getId() <= 0) {
+            return false;
+        }
+        return films.compute(film.getId(), oldFilm -> oldFilm == null ? null : copy(film)) != null;
+    }
+
+    @Override
+    public Optional<Film> findById(long filmId) {
+        if (filmId <= 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(films.get(filmId)).map(this::read);
+    }
+
+    @Override
+    public boolean existsById(long filmId) {
+        return films.get(filmId) != null;
+    }
+
+    @Override
+    public List<Film> findAll() {
+        return findPage(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        List<Film> page = new ArrayList<>(Math.min(limit, 1024));
+        long lastId = idSequence.get();
+        for (long id = afterId + 1; id <= lastId && page.size() < limit; id++) {
+            Film film = films.get(id);
+            if (film != null) {
+                page.add(read(film));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<Film> findByIds(Collection<Long> filmIds) {
+        List<Film> result = new ArrayList<>(filmIds.size());
+        for (Long filmId : filmIds) {
+            findById(filmId).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return getPopularFilms(count, null, null, null);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer mpaId, Integer year) {
+        return films.values().stream()
+                .filter(film -> genreId == null || filmGenresStorage.hasGenre(film.getId(), genreId))
+                .filter(film -> mpaId == null || film.getMpa() != null && film.getMpa().getId() == mpaId)
+                .filter(film -> year == null || film.getReleaseDate() != null && film.getReleaseDate().getYear() == year)
+                .sorted(Comparator.comparingLong((Film film) -> likeStorage.countLikes(film.getId())).reversed()
+                        .thenComparingLong(Film::getId))
+                .limit(count)
+                .map(this::read)
+                .toList();
+    }
+
+    private Film read(Film film) {
+        Film result = copy(film);
+        filmGenresStorage.setGenresToFilms(List.of(result));
+        return result;
+    }
+
+    private Film copy(Film film) {
+        Mpa mpa = film.getMpa() == null ? null : referenceDataCache.findMpaById(film.getMpa().getId())
+                .orElse(film.getMpa());
+        Mpa mpaCopy = mpa == null ? null : new Mpa(mpa.getId(), mpa.getName());
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), mpaCopy, new HashSet<>());
+    }
+
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.collection.ConcurrentLongMap;
+import ru.yandex.practicum.filmorate.storage.collection.SortedLongArrays;
+import ru.yandex.practicum.filmorate.storage.user.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendSuggestions;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Component
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class InMemoryFriendStorage implements FriendStorage {
+    private final UserStorage userStorage;
+    private final ConcurrentLongMap<long[]> friendsByUser = new ConcurrentLongMap<>();
+    private final FriendSuggestions suggestions = new FriendSuggestions(friendsByUser::get);
+
+    @Override
+    public void addFriend(long userId, long friendId) {
+        friendsByUser.compute(userId, friendIds -> {
+            if (SortedLongArrays.contains(friendIds, friendId)) {
+                throw new DuplicateKeyException("Пользователь " + friendId + " уже в друзьях у " + userId);
+            }
+            return SortedLongArrays.insert(friendIds, friendId);
+        });
+        suggestions.changed(userId);
+    }
+
+    @Override
+    public void addFriends(List<Friendship> friendships) {
+        Set<Friendship> batch = new HashSet<>();
+        for (Friendship friendship : friendships) {
+            if (!batch.add(friendship) || SortedLongArrays.contains(
+                    friendsByUser.get(friendship.getUserId()), friendship.getFriendId())) {
+                throw new DuplicateKeyException("Повторная дружба " + friendship);
+            }
+        }
+        friendships.forEach(friendship -> addFriend(friendship.getUserId(), friendship.getFriendId()));
+    }
+
+    @Override
+    public void deleteFriend(long userId, long friendId) {
+        friendsByUser.compute(userId, friendIds -> {
+            long[] remaining = SortedLongArrays.remove(friendIds, friendId);
+            return remaining.length == 0 ? null : remaining;
+        });
+        suggestions.changed(userId);
+    }
+
+    @Override
+    public List<User> getUserFriends(long userId) {
+        log.info("Запрос в хранилище на получение списка друзей");
+        return toUsers(friendsByUser.get(userId));
+    }
+
+    @Override
+    public int countFriends(long userId) {
+        long[] friendIds = friendsByUser.get(userId);
+        return friendIds == null ? 0 : friendIds.length;
+    }
+
+    @Override
+    public List<User> findCommonFriends(long userId, long otherUserId) {
+        long[] common = SortedLongArrays.intersect(friendsByUser.get(userId), friendsByUser.get(otherUserId));
+        return toUsers(common);
+    }
+
+    @Override
+    public List<User> findSuggestions(long userId, int limit) {
+        return toUsers(suggestions.suggest(userId, limit));
+    }
+
+    private List<User> toUsers(long[] userIds) {
+        if (userIds == null) {
+            return new ArrayList<>();
+        }
+        return userStorage.findByIds(Arrays.stream(userIds).boxed().toList());
+    }
+
+}
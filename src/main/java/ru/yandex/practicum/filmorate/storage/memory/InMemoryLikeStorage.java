@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.collection.ConcurrentLongMap;
+import ru.yandex.practicum.filmorate.storage.collection.SortedLongArrays;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikesMatrix;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class InMemoryLikeStorage implements LikeStorage {
+    private final FilmPopularityIndex filmPopularityIndex;
+    private final LikesMatrix likesMatrix;
+    private final ConcurrentLongMap<long[]> likesByFilm = new ConcurrentLongMap<>();
+
+    @Override
+    public void addLike(long filmId, long userId) {
+        likesByFilm.compute(filmId, userIds -> {
+            if (SortedLongArrays.contains(userIds, userId)) {
+                throw new DuplicateKeyException("Пользователь " + userId + " уже поставил лайк фильму " + filmId);
+            }
+            return SortedLongArrays.insert(userIds, userId);
+        });
+        filmPopularityIndex.increment(filmId);
+        likesMatrix.add(filmId, userId);
+    }
+
+    @Override
+    public void addLikes(List<Like> likes) {
+        Set<Like> batch = new HashSet<>();
+        for (Like like : likes) {
+            if (!batch.add(like) || SortedLongArrays.contains(likesByFilm.get(like.getFilmId()), like.getUserId())) {
+                throw new DuplicateKeyException("Повторный лайк " + like);
+            }
+        }
+        likes.forEach(like -> addLike(like.getFilmId(), like.getUserId()));
+    }
+
+    @Override
+    public void deleteLike(long filmId, long userId) {
+        boolean[] deleted = new boolean[1];
+        likesByFilm.compute(filmId, userIds -> {
+            deleted[0] = SortedLongArrays.contains(userIds, userId);
+            long[] remaining = SortedLongArrays.remove(userIds, userId);
+            return remaining.length == 0 ? null : remaining;
+        });
+        if (deleted[0]) {
+            filmPopularityIndex.decrement(filmId);
+            likesMatrix.remove(filmId, userId);
+        }
+    }
+
+    public long countLikes(long filmId) {
+        long[] userIds = likesByFilm.get(filmId);
+        return userIds == null ? 0 : userIds.length;
+    }
+
+}
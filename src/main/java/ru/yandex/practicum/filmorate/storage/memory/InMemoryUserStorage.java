@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.collection.ConcurrentLongMap;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@Profile("in-memory")
+public class InMemoryUserStorage implements UserStorage {
+    private final ConcurrentLongMap<User> users = new ConcurrentLongMap<>();
+    private final Map<String, Long> logins = new ConcurrentHashMap<>();
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @Override
+    public List<User> findAll() {
+        return findPage(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        long lastId = idSequence.get();
+        for (long id = afterId + 1; id <= lastId && page.size() < limit; id++) {
+            User user = users.get(id);
+            if (user != null) {
+                page.add(copy(user));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public User create(User user) {
+        long id = idSequence.incrementAndGet();
+        reserve(id, user.getLogin(), user.getEmail());
+        user.setId(id);
+        users.put(id, copy(user));
+        return user;
+    }
+
+    @Override
+    public List<User> createAll(List<User> users) {
+        users.forEach(this::create);
+        return users;
+    }
+
+    @Override
+    public User save(User user) {
+        if (user.getId() == null || user.getId() <= 0) {
+            return user;
+        }
+        users.compute(user.getId(), oldUser -> {
+            if (oldUser == null) {
+                return null;
+            }
+            if (!Objects.equals(oldUser.getLogin(), user.getLogin())
+                    || !Objects.equals(oldUser.getEmail(), user.getEmail())) {
+                reserve(user.getId(), user.getLogin(), user.getEmail());
+                release(oldUser, user);
+            }
+            return copy(user);
+        });
+        log.info("Данные пользователя id {} обновлены в хранилище", user.getId());
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(long userId) {
+        if (userId <= 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(users.get(userId)).map(this::copy);
+    }
+
+    @Override
+    public List<User> findByIds(Collection<Long> userIds) {
+        List<User> result = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            findById(userId).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsByLogin(String login) {
+        return login != null && logins.containsKey(login);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return email != null && emails.containsKey(email);
+    }
+
+    private void reserve(long id, String login, String email) {
+        Long loginOwner = login == null ? null : logins.putIfAbsent(login, id);
+        if (loginOwner != null && loginOwner != id) {
+            throw new DuplicateKeyException("Логин " + login + " уже занят");
+        }
+        Long emailOwner = email == null ? null : emails.putIfAbsent(email, id);
+        if (emailOwner != null && emailOwner != id) {
+            if (loginOwner == null && login != null) {
+                logins.remove(login, id);
+            }
+            throw new DuplicateKeyException("Email " + email + " уже используется");
+        }
+    }
+
+    private void release(User oldUser, User newUser) {
+        if (oldUser.getLogin() != null && !oldUser.getLogin().equals(newUser.getLogin())) {
+            logins.remove(oldUser.getLogin(), oldUser.getId());
+        }
+        if (oldUser.getEmail() != null && !oldUser.getEmail().equals(newUser.getEmail())) {
+            emails.remove(oldUser.getEmail(), oldUser.getId());
+        }
+    }
+
+    private User copy(User user) {
+        return new User(user.getId(), user.getEmail(), user.getLogin(), user.getName(), user.getBirthday());
+    }
+
+}
@@ -2,48 +2,79 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.mappers.user.UserRowMapper;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.AfterCommit;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Slf4j
 @Repository
+@Profile("!in-memory")
 @RequiredArgsConstructor
-public class FriendDbStorage {
+public class FriendDbStorage implements FriendStorage {
     private final JdbcTemplate jdbcTemplate;
-    private final UserRowMapper userRowMapper;
+    private final UserStorage userStorage;
+    private final FriendshipGraph friendshipGraph;
 
+    @Override
     public void addFriend(long userId, long friendId) {
         String query = "INSERT INTO friendship(user_id, friend_id) VALUES (?,?)";
         jdbcTemplate.update(query, userId, friendId);
+        AfterCommit.run(() -> friendshipGraph.add(userId, friendId));
     }
 
+    @Override
+    @Transactional
+    public void addFriends(List<Friendship> friendships) {
+        if (friendships.isEmpty()) {
+            return;
+        }
+        String query = "INSERT INTO friendship(user_id, friend_id) VALUES (?,?)";
+        jdbcTemplate.batchUpdate(query, friendships, friendships.size(), (ps, friendship) -> {
+            ps.setLong(1, friendship.getUserId());
+            ps.setLong(2, friendship.getFriendId());
+        });
+        AfterCommit.run(() -> friendships.forEach(friendship ->
+                friendshipGraph.add(friendship.getUserId(), friendship.getFriendId())));
+    }
+
+    @Override
     public void deleteFriend(long userId, long friendId) {
         String sql = "DELETE FROM friendship WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sql, userId, friendId/*, userId, friendId*/);
+        if (jdbcTemplate.update(sql, userId, friendId) > 0) {
+            AfterCommit.run(() -> friendshipGraph.remove(userId, friendId));
+        }
     }
 
+    @Override
     public List<User> getUserFriends(long userId) {
         log.info("Запрос в хранилище на получение списка друзей");
-        String sql = "SELECT u.user_id, u.email, u.login, u.name, u.birthday " +
-                "FROM friendship AS f " +
-                "INNER JOIN users AS u ON u.user_id = f.friend_id " +
-                "WHERE f.user_id = ? " +
-                "ORDER BY u.user_id";
-        return jdbcTemplate.query(sql, userRowMapper, userId);
+        return toUsers(friendshipGraph.getFriends(userId));
+    }
+
+    @Override
+    public int countFriends(long userId) {
+        return friendshipGraph.getFriends(userId).length;
     }
 
+    @Override
     public List<User> findCommonFriends(long userId, long otherUserId) {
-        String sql = "SELECT u.user_id, u.email, u.login, u.name, u.birthday " +
-                "FROM friendship AS f " +
-                "INNER JOIN friendship fr ON fr.friend_id = f.friend_id " +
-                "INNER JOIN users u ON u.user_id = fr.friend_id " +
-                "WHERE f.user_id = ? AND fr.user_id = ? " +
-                "AND f.friend_id <> fr.user_id AND fr.friend_id <> f.user_id";
-        return jdbcTemplate.query(sql, userRowMapper, userId, otherUserId);
+        return toUsers(friendshipGraph.getCommonFriends(userId, otherUserId));
+    }
+
+    @Override
+    public List<User> findSuggestions(long userId, int limit) {
+        return toUsers(friendshipGraph.getSuggestions(userId, limit));
+    }
+
+    private List<User> toUsers(long[] userIds) {
+        return userStorage.findByIds(Arrays.stream(userIds).boxed().toList());
     }
 
 }
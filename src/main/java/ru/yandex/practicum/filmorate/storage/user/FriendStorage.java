@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+
+public interface FriendStorage {
+
+    void addFriend(long userId, long friendId);
+
+    void addFriends(List<Friendship> friendships);
+
+    void deleteFriend(long userId, long friendId);
+
+    List<User> getUserFriends(long userId);
+
+    List<User> findCommonFriends(long userId, long otherUserId);
+
+    List<User> findSuggestions(long userId, int limit);
+
+    int countFriends(long userId);
+
+}
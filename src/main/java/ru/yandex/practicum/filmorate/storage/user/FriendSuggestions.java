@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.storage.collection.ConcurrentLongMap;
+import ru.yandex.practicum.filmorate.storage.collection.LongIntCounter;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Ранжирует друзей друзей по числу общих друзей. Обход ограничен двумя шагами и
+ * {@link #MAX_FAN_OUT} соседями на каждом шаге, счетчики хранятся в примитивных массивах.
+ * Результат кешируется для {@link #MAX_CACHED_USERS} последних пользователей и пересчитывается,
+ * когда после расчета менялся список друзей самого пользователя или любого из просмотренных друзей.
+ * Владелец списков смежности сообщает об изменениях через {@link #changed(long)}.
+ */
+public class FriendSuggestions {
+    public static final int MAX_SUGGESTIONS = 100;
+    public static final int MAX_FAN_OUT = 1_000;
+    public static final int MAX_CACHED_USERS = 10_000;
+
+    private final LongFunction<long[]> adjacency;
+    private final AtomicLong version = new AtomicLong();
+    private final ConcurrentLongMap<Long> changedAt = new ConcurrentLongMap<>();
+    private final Map<Long, Entry> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MAX_CACHED_USERS;
+        }
+    };
+
+    /**
+     * @param adjacency возвращает отсортированные id друзей пользователя или null
+     */
+    public FriendSuggestions(LongFunction<long[]> adjacency) {
+        this.adjacency = adjacency;
+    }
+
+    public long[] suggest(long userId, int limit) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(userId);
+        }
+        if (entry == null || !isValid(userId, entry)) {
+            entry = compute(userId);
+            synchronized (cache) {
+                cache.put(userId, entry);
+            }
+        }
+        long[] ranked = entry.ranked;
+        return ranked.length <= limit ? ranked.clone() : Arrays.copyOf(ranked, limit);
+    }
+
+    /**
+     * Вызывается после изменения списка друзей пользователя.
+     */
+    public void changed(long userId) {
+        changedAt.put(userId, version.incrementAndGet());
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        changedAt.clear();
+    }
+
+    // Пока версия не менялась с прошлой проверки, записи не нужно сверять просмотренных друзей заново
+    private boolean isValid(long userId, Entry entry) {
+        long current = version.get();
+        if (entry.checkedAt == current) {
+            return true;
+        }
+        if (changedSince(userId, entry.computedAt)) {
+            return false;
+        }
+        for (long visitedId : entry.visitedIds) {
+            if (changedSince(visitedId, entry.computedAt)) {
+                return false;
+            }
+        }
+        entry.checkedAt = current;
+        return true;
+    }
+
+    private boolean changedSince(long userId, long computedAt) {
+        Long changed = changedAt.get(userId);
+        return changed != null && changed > computedAt;
+    }
+
+    private Entry compute(long userId) {
+        // Версия берется до чтения списков: изменение во время расчета сделает запись устаревшей
+        long computedAt = version.get();
+        long[] friendIds = adjacency.apply(userId);
+        if (friendIds == null) {
+            return new Entry(computedAt, new long[0], new long[0]);
+        }
+
+        int firstHop = Math.min(friendIds.length, MAX_FAN_OUT);
+        long[] visitedIds = Arrays.copyOf(friendIds, firstHop);
+        LongIntCounter counter = new LongIntCounter(firstHop * 4);
+        for (int i = 0; i < firstHop; i++) {
+            long[] friendsOfFriend = adjacency.apply(friendIds[i]);
+            if (friendsOfFriend == null) {
+                continue;
+            }
+            int secondHop = Math.min(friendsOfFriend.length, MAX_FAN_OUT);
+            for (int j = 0; j < secondHop; j++) {
+                long candidateId = friendsOfFriend[j];
+                if (candidateId != userId && Arrays.binarySearch(friendIds, candidateId) < 0) {
+                    counter.increment(candidateId);
+                }
+            }
+        }
+        return new Entry(computedAt, visitedIds, counter.top(MAX_SUGGESTIONS));
+    }
+
+    private static final class Entry {
+        private final long computedAt;
+        private final long[] visitedIds;
+        private final long[] ranked;
+        private volatile long checkedAt;
+
+        private Entry(long computedAt, long[] visitedIds, long[] ranked) {
+            this.computedAt = computedAt;
+            this.visitedIds = visitedIds;
+            this.ranked = ranked;
+            this.checkedAt = computedAt;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.collection.ConcurrentLongMap;
+import ru.yandex.practicum.filmorate.storage.collection.SortedLongArrays;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+@Slf4j
+@Component
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class FriendshipGraph {
+    private static final String FRIENDSHIP_QUERY = "SELECT user_id, friend_id FROM friendship " +
+            "ORDER BY user_id, friend_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentLongMap<long[]> friendsByUser = new ConcurrentLongMap<>();
+    private final FriendSuggestions suggestions = new FriendSuggestions(friendsByUser::get);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.lock();
+        try {
+            log.info("Перестроение графа дружбы по таблице friendship");
+            friendsByUser.clear();
+            suggestions.clear();
+            AdjacencyBuilder builder = new AdjacencyBuilder(friendsByUser::put);
+            jdbcTemplate.query(FRIENDSHIP_QUERY, rs -> {
+                builder.accept(rs.getLong("user_id"), rs.getLong("friend_id"));
+            });
+            builder.flush();
+            log.info("Граф дружбы перестроен, пользователей с друзьями: {}, связей: {}",
+                    friendsByUser.size(), builder.edges);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сверяет граф с таблицей friendship и возвращает id пользователей, чьи списки друзей расходятся.
+     */
+    public Set<Long> findInconsistencies() {
+        log.info("Сверка графа дружбы с таблицей friendship");
+        Map<Long, long[]> expected = new HashMap<>();
+        AdjacencyBuilder builder = new AdjacencyBuilder(expected::put);
+        jdbcTemplate.query(FRIENDSHIP_QUERY, rs -> {
+            builder.accept(rs.getLong("user_id"), rs.getLong("friend_id"));
+        });
+        builder.flush();
+
+        Set<Long> inconsistencies = new HashSet<>();
+        expected.forEach((userId, friendIds) -> {
+            if (!Arrays.equals(friendsByUser.get(userId), friendIds)) {
+                inconsistencies.add(userId);
+            }
+        });
+        for (long userId : friendsByUser.keys()) {
+            if (!expected.containsKey(userId)) {
+                inconsistencies.add(userId);
+            }
+        }
+
+        if (!inconsistencies.isEmpty()) {
+            log.warn("Граф дружбы расходится с таблицей friendship для пользователей: {}", inconsistencies);
+        }
+        return inconsistencies;
+    }
+
+    public void add(long userId, long friendId) {
+        friendsByUser.compute(userId, friendIds -> SortedLongArrays.insert(friendIds, friendId));
+        suggestions.changed(userId);
+    }
+
+    public void remove(long userId, long friendId) {
+        friendsByUser.compute(userId, friendIds -> {
+            long[] remaining = SortedLongArrays.remove(friendIds, friendId);
+            return remaining.length == 0 ? null : remaining;
+        });
+        suggestions.changed(userId);
+    }
+
+    public boolean contains(long userId, long friendId) {
+        return SortedLongArrays.contains(friendsByUser.get(userId), friendId);
+    }
+
+    /**
+     * Возвращает id друзей по возрастанию. Массив разделяется с индексом и не должен изменяться.
+     */
+    public long[] getFriends(long userId) {
+        long[] friendIds = friendsByUser.get(userId);
+        return friendIds == null ? SortedLongArrays.EMPTY : friendIds;
+    }
+
+    public long[] getCommonFriends(long userId, long otherUserId) {
+        return SortedLongArrays.intersect(friendsByUser.get(userId), friendsByUser.get(otherUserId));
+    }
+
+    public int size() {
+        return friendsByUser.size();
+    }
+
+    public long[] getSuggestions(long userId, int limit) {
+        return suggestions.suggest(userId, limit);
+    }
+
+    private static final class AdjacencyBuilder {
+        private final BiConsumer<Long, long[]> target;
+        private long currentUserId;
+        private long[] buffer = new long[16];
+        private int size;
+        private long edges;
+
+        private AdjacencyBuilder(BiConsumer<Long, long[]> target) {
+            this.target = target;
+        }
+
+        private void accept(long userId, long friendId) {
+            if (userId != currentUserId) {
+                flush();
+                currentUserId = userId;
+            }
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = friendId;
+            edges++;
+        }
+
+        private void flush() {
+            if (size > 0) {
+                target.accept(currentUserId, Arrays.copyOf(buffer, size));
+            }
+            size = 0;
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -11,14 +13,23 @@ import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
 @Component
+@Profile("!in-memory")
 public class UserDbStorage implements UserStorage {
+    private static final int USER_IDS_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
     private final UserRowMapper userRowMapper;
 
@@ -28,6 +39,12 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query(query, userRowMapper);
     }
 
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        String query = "SELECT user_id, login, name, email, birthday FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        return jdbcTemplate.query(query, userRowMapper, afterId, limit);
+    }
+
     @Override
     public User create(User user) {
         String query = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
@@ -45,6 +62,40 @@ public class UserDbStorage implements UserStorage {
         return user;
     }
 
+    @Override
+    public List<User> createAll(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        String query = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(query, new String[]{"user_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = users.get(i);
+                        ps.setString(1, user.getEmail());
+                        ps.setString(2, user.getLogin());
+                        ps.setString(3, user.getName());
+                        ps.setDate(4, Date.valueOf(user.getBirthday()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            users.get(i).setId(id.longValue());
+        }
+        log.info("Пакетно создано пользователей: {}", users.size());
+        return users;
+    }
+
     @Override
     public User save(User user) {
         String query = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE user_id = ?";
@@ -55,15 +106,53 @@ public class UserDbStorage implements UserStorage {
 
     @Override
     public Optional<User> findById(long userId) {
-        log.info("Запрос на поиск юзера по id: {}", userId);
+        log.debug("Запрос на поиск юзера по id: {}", userId);
         String query = "SELECT * FROM users WHERE user_id = ?";
         List<User> results = jdbcTemplate.query(query, userRowMapper, userId);
         if (results.isEmpty()) {
-            log.info("Пользователь с id {} не найден.", userId);
+            log.debug("Пользователь с id {} не найден.", userId);
             return Optional.empty();
         } else {
-            log.info("Пользователь с id {} успешно найден.", userId);
+            log.debug("Пользователь с id {} успешно найден.", userId);
             return Optional.of(results.get(0));
         }
     }
+
+    @Override
+    public List<User> findByIds(Collection<Long> userIds) {
+        log.debug("Запрос на поиск пользователей по списку id, количество: {}", userIds.size());
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        Map<Long, User> usersById = new HashMap<>(ids.size());
+        String query = "SELECT user_id, login, name, email, birthday FROM users WHERE user_id IN (%s)";
+        for (int from = 0; from < ids.size(); from += USER_IDS_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + USER_IDS_BATCH_SIZE, ids.size()));
+            String inSql = String.join(",", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query(String.format(query, inSql), userRowMapper, batch.toArray())
+                    .forEach(user -> usersById.put(user.getId(), user));
+        }
+
+        List<User> users = new ArrayList<>(usersById.size());
+        for (Long userId : ids) {
+            User user = usersById.get(userId);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public boolean existsByLogin(String login) {
+        String query = "SELECT EXISTS(SELECT 1 FROM users WHERE login = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, login));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        String query = "SELECT EXISTS(SELECT 1 FROM users WHERE email = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, email));
+    }
 }
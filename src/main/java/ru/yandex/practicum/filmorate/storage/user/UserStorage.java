@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,11 +10,20 @@ public interface UserStorage {
 
     List<User> findAll();
 
+    List<User> findPage(long afterId, int limit);
+
     User create(User user);
 
+    List<User> createAll(List<User> users);
+
     User save(User user);
 
     Optional<User> findById(long userId);
 
+    List<User> findByIds(Collection<Long> userIds);
+
+    boolean existsByLogin(String login);
+
+    boolean existsByEmail(String email);
 
 }
@@ -0,0 +1,231 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.collection.SortedLongArrays;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Префиксный индекс по логину и имени пользователей для подсказок при вводе. Ключ - нормализованный
+ * логин, имя целиком или отдельное слово имени, значение - отсортированный массив id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserTypeaheadIndex {
+    public static final int MAX_RESULTS = 50;
+
+    // Сколько кандидатов просматривается для очень коротких префиксов, чтобы ограничить работу запроса
+    private static final int MAX_SCANNED = 5_000;
+
+    private final UserStorage userStorage;
+    private final ConcurrentSkipListMap<String, long[]> usersByKey = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> keysByUser = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.lock();
+        try {
+            log.info("Перестроение префиксного индекса пользователей");
+            usersByKey.clear();
+            keysByUser.clear();
+            userStorage.findAll().forEach(this::add);
+            log.info("Префиксный индекс пользователей перестроен, пользователей: {}, ключей: {}",
+                    keysByUser.size(), usersByKey.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет пользователя или обновляет его ключи после смены логина или имени.
+     */
+    public void add(User user) {
+        add(user.getId(), user.getLogin(), user.getName());
+    }
+
+    public int size() {
+        return keysByUser.size();
+    }
+
+    /**
+     * Возвращает до limit id пользователей, у которых логин, имя или слово имени начинается с префикса,
+     * по убыванию числа друзей. Память запроса ограничена размером результата: лучшие кандидаты держатся
+     * в куче на limit элементов.
+     */
+    public List<Long> search(String prefix, int limit, LongToIntFunction friendsCount) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        TopUsers top = new TopUsers(limit);
+        ConcurrentNavigableMap<String, long[]> range = usersByKey.subMap(normalized, true,
+                normalized + Character.MAX_VALUE, false);
+        int scanned = 0;
+        for (long[] userIds : range.values()) {
+            for (long userId : userIds) {
+                if (!top.contains(userId)) {
+                    top.offer(userId, friendsCount.applyAsInt(userId));
+                }
+                if (++scanned >= MAX_SCANNED) {
+                    return top.toList();
+                }
+            }
+        }
+        return top.toList();
+    }
+
+    private void add(long userId, String login, String name) {
+        lock.lock();
+        try {
+            Set<String> keys = keysOf(login, name);
+            Set<String> oldKeys = keysByUser.put(userId, keys);
+            if (oldKeys != null) {
+                for (String key : oldKeys) {
+                    if (!keys.contains(key)) {
+                        usersByKey.computeIfPresent(key, (k, userIds) -> {
+                            long[] remaining = SortedLongArrays.remove(userIds, userId);
+                            return remaining.length == 0 ? null : remaining;
+                        });
+                    }
+                }
+            }
+            for (String key : keys) {
+                usersByKey.compute(key, (k, userIds) -> SortedLongArrays.insert(userIds, userId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Set<String> keysOf(String login, String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        addKey(keys, login);
+        String normalizedName = normalize(name);
+        addKey(keys, normalizedName);
+        for (String word : normalizedName.split("\\s+")) {
+            addKey(keys, word);
+        }
+        return keys;
+    }
+
+    private static void addKey(Set<String> keys, String value) {
+        String key = normalize(value);
+        if (!key.isEmpty()) {
+            keys.add(key);
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.strip().toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    /**
+     * Куча на limit элементов с минимальным числом друзей в корне; при равенстве хуже тот, у кого id больше.
+     */
+    private static final class TopUsers {
+        private final long[] userIds;
+        private final int[] counts;
+        private int size;
+
+        private TopUsers(int limit) {
+            userIds = new long[limit];
+            counts = new int[limit];
+        }
+
+        private boolean contains(long userId) {
+            for (int i = 0; i < size; i++) {
+                if (userIds[i] == userId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void offer(long userId, int count) {
+            if (size < userIds.length) {
+                userIds[size] = userId;
+                counts[size] = count;
+                siftUp(size++);
+            } else if (size > 0 && better(userId, count, 0)) {
+                userIds[0] = userId;
+                counts[0] = count;
+                siftDown(0);
+            }
+        }
+
+        private List<Long> toList() {
+            List<Long> result = new ArrayList<>(size);
+            while (size > 0) {
+                result.add(userIds[0]);
+                size--;
+                userIds[0] = userIds[size];
+                counts[0] = counts[size];
+                siftDown(0);
+            }
+            return result.reversed();
+        }
+
+        private boolean better(long userId, int count, int index) {
+            return count > counts[index] || count == counts[index] && userId < userIds[index];
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!better(userIds[parent], counts[parent], index)) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && better(userIds[worst], counts[worst], left)) {
+                    worst = left;
+                }
+                if (right < size && better(userIds[worst], counts[worst], right)) {
+                    worst = right;
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        private void swap(int first, int second) {
+            long userId = userIds[first];
+            userIds[first] = userIds[second];
+            userIds[second] = userId;
+            int count = counts[first];
+            counts[first] = counts[second];
+            counts[second] = count;
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserUniquenessIndex {
+    private final UserStorage userStorage;
+    private final Set<String> logins = ConcurrentHashMap.newKeySet();
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.lock();
+        try {
+            log.info("Перестроение индекса логинов и email пользователей");
+            logins.clear();
+            emails.clear();
+            userStorage.findAll().forEach(this::add);
+            log.info("Индекс логинов и email перестроен, пользователей: {}", logins.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean containsLogin(String login) {
+        return login != null && logins.contains(login);
+    }
+
+    public boolean containsEmail(String email) {
+        return email != null && emails.contains(email);
+    }
+
+    public int size() {
+        return logins.size();
+    }
+
+    public void add(User user) {
+        logins.add(user.getLogin());
+        emails.add(user.getEmail());
+    }
+
+    public void replace(User oldUser, User newUser) {
+        if (!Objects.equals(oldUser.getLogin(), newUser.getLogin())) {
+            logins.add(newUser.getLogin());
+            logins.remove(oldUser.getLogin());
+        }
+        if (!Objects.equals(oldUser.getEmail(), newUser.getEmail())) {
+            emails.add(newUser.getEmail());
+            emails.remove(oldUser.getEmail());
+        }
+    }
+
+}
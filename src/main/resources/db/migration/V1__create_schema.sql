@@ -1,11 +1,3 @@
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS friendship CASCADE;
-DROP TABLE IF EXISTS genres CASCADE;
-DROP TABLE IF EXISTS mpa CASCADE;
-DROP TABLE IF EXISTS films CASCADE;
-DROP TABLE IF EXISTS likes CASCADE;
-DROP TABLE IF EXISTS film_genres CASCADE;
-
 CREATE TABLE IF NOT EXISTS users(
     user_id  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     email    VARCHAR(254) NOT NULL,
@@ -14,6 +6,9 @@ CREATE TABLE IF NOT EXISTS users(
     birthday DATE NOT NULL
 );
 
+CREATE UNIQUE INDEX IF NOT EXISTS users_login_uindex ON users(login);
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_uindex ON users(email);
+
 CREATE TABLE IF NOT EXISTS friendship(
    PRIMARY KEY(user_id, friend_id),
    user_id   BIGINT NOT NULL,
@@ -56,9 +51,3 @@ CREATE TABLE IF NOT EXISTS film_genres(
    FOREIGN KEY(film_id) REFERENCES films(film_id),
    FOREIGN KEY(genre_id) REFERENCES genres(genre_id)
 );
-
-
-
-
-
-
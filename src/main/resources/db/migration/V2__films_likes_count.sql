@@ -0,0 +1,5 @@
+-- Денормализованное число лайков для топа популярных фильмов; в уже заполненной базе пересчитывается по likes
+ALTER TABLE films ADD COLUMN IF NOT EXISTS likes_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE films f
+SET likes_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id);
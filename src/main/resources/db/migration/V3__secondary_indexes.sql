@@ -0,0 +1,13 @@
+-- Топ популярных: общий, по рейтингу MPA и по году выхода
+CREATE INDEX IF NOT EXISTS films_likes_count_idx ON films(likes_count DESC, film_id);
+CREATE INDEX IF NOT EXISTS films_rating_likes_count_idx ON films(rating_id, likes_count DESC);
+CREATE INDEX IF NOT EXISTS films_release_date_idx ON films(release_date);
+
+-- Первичный ключ likes начинается с user_id; пересчет likes_count и выборки лайков фильма идут по film_id
+CREATE INDEX IF NOT EXISTS likes_film_user_idx ON likes(film_id, user_id);
+
+-- Обратная сторона дружбы: кто добавил пользователя в друзья
+CREATE INDEX IF NOT EXISTS friendship_friend_user_idx ON friendship(friend_id, user_id);
+
+-- Фильмы жанра; первичный ключ film_genres начинается с film_id
+CREATE INDEX IF NOT EXISTS film_genres_genre_film_idx ON film_genres(genre_id, film_id);
@@ -1,9 +1,4 @@
-DELETE
-FROM genres;
-DELETE
-FROM mpa;
-
-INSERT INTO genres(genre_id, name)
+MERGE INTO genres(genre_id, name) KEY(genre_id)
 VALUES (1, 'Комедия'),
        (2, 'Драма'),
        (3, 'Мультфильм'),
@@ -11,9 +6,9 @@ VALUES (1, 'Комедия'),
        (5, 'Документальный'),
        (6, 'Боевик');
 
-INSERT INTO mpa(rating_id, name)
+MERGE INTO mpa(rating_id, name) KEY(rating_id)
 VALUES (1, 'G'),
        (2, 'PG'),
        (3, 'PG-13'),
        (4, 'R'),
-       (5, 'NC-17');
\ No newline at end of file
+       (5, 'NC-17');
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.config.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedDataSourceTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcDataSource h2;
+
+    @BeforeEach
+    public void setUp() {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:bounded;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    public void testPermitIsReleasedOnceOnClose() throws SQLException {
+        BoundedDataSource dataSource = new BoundedDataSource(h2, 2, 100, () -> meterRegistry);
+
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+
+        connection.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+
+        // Повторное закрытие не должно выдать лишнее разрешение
+        connection.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTimeoutRaisesTransientConnectionException() throws SQLException {
+        BoundedDataSource dataSource = new BoundedDataSource(h2, 1, 50, () -> meterRegistry);
+
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThatThrownBy(dataSource::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class);
+            assertThat(dataSource.getAvailablePermits()).isZero();
+        }
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        assertThat(meterRegistry.get("filmorate.jdbc.permits.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPostProcessorSizesPermitsFromHikariPool() {
+        BoundedDataSourcePostProcessor postProcessor = new BoundedDataSourcePostProcessor(
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry))
+                        .getBeanProvider(MeterRegistry.class));
+        try (HikariDataSource hikari = new HikariDataSource()) {
+            hikari.setDataSource(h2);
+            hikari.setMaximumPoolSize(3);
+
+            Object bounded = postProcessor.postProcessAfterInitialization(hikari, "dataSource");
+
+            assertThat(bounded).isInstanceOf(BoundedDataSource.class);
+            assertThat(((BoundedDataSource) bounded).getMaxConcurrency()).isEqualTo(3);
+            assertThat(((BoundedDataSource) bounded).getAvailablePermits()).isEqualTo(3);
+            assertThat(postProcessor.postProcessAfterInitialization(bounded, "dataSource")).isSameAs(bounded);
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.config.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CountingAsyncAppenderTest {
+
+    @Test
+    public void testCountsEventsDroppedOnFullQueue() throws InterruptedException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AppenderBase<ILoggingEvent> slow = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                taken.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        slow.setContext(context);
+        slow.start();
+
+        CountingAsyncAppender appender = new CountingAsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(1);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        appender.addAppender(slow);
+        appender.start();
+        long dropped = CountingAsyncAppender.getDropped();
+        try {
+            appender.doAppend(event(context));
+            assertThat(taken.await(5, TimeUnit.SECONDS)).isTrue();
+            appender.doAppend(event(context));
+            appender.doAppend(event(context));
+            appender.doAppend(event(context));
+
+            assertThat(CountingAsyncAppender.getDropped() - dropped).isEqualTo(2);
+        } finally {
+            release.countDown();
+            appender.stop();
+        }
+    }
+
+    private static ILoggingEvent event(LoggerContext context) {
+        return new LoggingEvent(CountingAsyncAppenderTest.class.getName(), context.getLogger("test"), Level.INFO, "message", null, null);
+    }
+
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonResponseCacheTest {
+
+    private final JsonResponseCache cache = new JsonResponseCache(new ObjectMapper());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void testServesCachedBytesUntilTagChanges() {
+        ResponseEntity<byte[]> first = cache.respond("mpa", "v1", request(null), this::load);
+        ResponseEntity<byte[]> second = cache.respond("mpa", "v1", request(null), this::load);
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).isEqualTo("[{\"id\":1,\"name\":\"G\"}]");
+
+        cache.respond("mpa", "v2", request(null), this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void testGzipWhenAccepted() throws IOException {
+        ResponseEntity<byte[]> plain = cache.respond("mpa", "v1", request(null), this::load);
+        ResponseEntity<byte[]> gzipped = cache.respond("mpa", "v1", request("gzip, deflate"), this::load);
+
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.getBody());
+        }
+    }
+
+    @Test
+    public void testGzipRespectsQualityValues() {
+        ResponseEntity<byte[]> refused = cache.respond("mpa", "v1", request("gzip;q=0, deflate"), this::load);
+        ResponseEntity<byte[]> wildcard = cache.respond("mpa", "v1", request("identity, *;q=0.5"), this::load);
+        ResponseEntity<byte[]> weighted = cache.respond("mpa", "v1", request("deflate, gzip;q=0.8"), this::load);
+
+        assertThat(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(wildcard.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(weighted.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    @Test
+    public void testGzipAndIdentityHaveDifferentETags() {
+        MockHttpServletResponse plainResponse = new MockHttpServletResponse();
+        MockHttpServletResponse gzipResponse = new MockHttpServletResponse();
+        cache.respond("mpa", "v1", request(null, null, plainResponse), this::load);
+        cache.respond("mpa", "v1", request("gzip", null, gzipResponse), this::load);
+
+        String plainTag = plainResponse.getHeader(HttpHeaders.ETAG);
+        String gzipTag = gzipResponse.getHeader(HttpHeaders.ETAG);
+        assertThat(plainTag).isEqualTo("\"v1\"");
+        assertThat(gzipTag).isEqualTo("\"v1-gz\"");
+
+        assertThat(cache.respond("mpa", "v1", request("gzip", gzipTag, new MockHttpServletResponse()),
+                this::load)).isNull();
+        assertThat(cache.respond("mpa", "v1", request("gzip", plainTag, new MockHttpServletResponse()),
+                this::load)).isNotNull();
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedKey() {
+        for (int i = 0; i < 256; i++) {
+            cache.respond("key" + i, "v1", request(null), this::load);
+        }
+        cache.respond("key0", "v1", request(null), this::load);
+        cache.respond("key256", "v1", request(null), this::load);
+        int loadsBefore = loads.get();
+
+        cache.respond("key0", "v1", request(null), this::load);
+        assertThat(loads).hasValue(loadsBefore);
+        cache.respond("key1", "v1", request(null), this::load);
+        assertThat(loads).hasValue(loadsBefore + 1);
+        assertThat(cache.size()).isEqualTo(256);
+    }
+
+    private List<Mpa> load() {
+        loads.incrementAndGet();
+        return List.of(new Mpa(1, "G"));
+    }
+
+    private static ServletWebRequest request(String acceptEncoding) {
+        return request(acceptEncoding, null, null);
+    }
+
+    private static ServletWebRequest request(String acceptEncoding, String ifNoneMatch,
+                                             MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/mpa");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.storage.film.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({MpaDbStorage.class,
+        GenreDbStorage.class,
+        ReferenceDataCache.class,
+        CatalogVersions.class})
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class CatalogVersionsTest {
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testFilmChangeBumpsFilmAndCatalogOnly() {
+        String catalogTag = catalogVersions.catalogTag();
+        String changedFilmTag = catalogVersions.filmTag(1);
+        String otherFilmTag = catalogVersions.filmTag(2);
+        String referenceTag = catalogVersions.referenceTag();
+
+        catalogVersions.filmChanged(1);
+
+        assertThat(catalogVersions.catalogTag()).isNotEqualTo(catalogTag);
+        assertThat(catalogVersions.filmTag(1)).isNotEqualTo(changedFilmTag);
+        assertThat(catalogVersions.filmTag(2)).isEqualTo(otherFilmTag);
+        assertThat(catalogVersions.referenceTag()).isEqualTo(referenceTag);
+    }
+
+    @Test
+    public void testVersionIsBumpedOnlyAfterCommit() {
+        String catalogTag = catalogVersions.catalogTag();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogVersions.catalogChanged();
+            assertThat(catalogVersions.catalogTag()).isEqualTo(catalogTag);
+        });
+        assertThat(catalogVersions.catalogTag()).isNotEqualTo(catalogTag);
+
+        String committedTag = catalogVersions.catalogTag();
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogVersions.catalogChanged();
+            status.setRollbackOnly();
+        });
+        assertThat(catalogVersions.catalogTag()).isEqualTo(committedTag);
+    }
+
+    @Test
+    public void testReferenceTagFollowsCacheRefresh() {
+        String referenceTag = catalogVersions.referenceTag();
+
+        referenceDataCache.refresh();
+
+        assertThat(catalogVersions.referenceTag()).isNotEqualTo(referenceTag);
+    }
+
+}
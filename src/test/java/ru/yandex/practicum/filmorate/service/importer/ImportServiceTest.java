@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.service.importer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ImportChunkReport;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.storage.user.UserUniquenessIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase
+@TestPropertySource(properties = "filmorate.import.batch-size=2")
+public class ImportServiceTest {
+
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private UserUniquenessIndex userUniquenessIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Пакеты импорта коммитятся сами, поэтому данные и индексы логинов чистятся после каждого теста
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM film_genres");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM friendship");
+        jdbcTemplate.update("DELETE FROM users");
+        userUniquenessIndex.rebuild();
+    }
+
+    @Test
+    public void testRecordsAreSplitIntoChunksOfDefaultSize() throws IOException {
+        ImportReport report = importService.importUsers(ndjson(
+                user("first"), user("second"), user("third"), user("fourth"), user("fifth")), null);
+
+        assertThat(report.getAccepted()).isEqualTo(5);
+        assertThat(report.getRejected()).isZero();
+        assertThat(report.getChunks()).extracting(ImportChunkReport::getAccepted).containsExactly(2L, 2L, 1L);
+        assertThat(report.getChunks()).extracting(ImportChunkReport::getFirstLine).containsExactly(1L, 3L, 5L);
+        assertThat(report.getChunks()).extracting(ImportChunkReport::getLastLine).containsExactly(2L, 4L, 5L);
+        assertThat(countRows("users")).isEqualTo(5);
+    }
+
+    @Test
+    public void testBatchSizeParameterOverridesDefault() throws IOException {
+        ImportReport report = importService.importUsers(ndjson(
+                user("first"), user("second"), user("third")), 3);
+
+        assertThat(report.getChunks()).hasSize(1);
+        assertThat(report.getChunks().getFirst().getAccepted()).isEqualTo(3);
+
+        assertThatThrownBy(() -> importService.importUsers(ndjson(user("fourth")), 0))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> importService.importUsers(ndjson(user("fourth")), 10_001))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    public void testInvalidRecordsAreRejectedWithTheirLines() throws IOException {
+        ImportReport report = importService.importUsers(ndjson(
+                user("first"),
+                "{\"login\": ",
+                "{\"email\":\"wrong\",\"login\":\"second\",\"name\":\"Second\",\"birthday\":\"1990-01-01\"}",
+                "",
+                user("first"),
+                user("third")), 10);
+
+        assertThat(report.getAccepted()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(3);
+        ImportChunkReport chunk = report.getChunks().getFirst();
+        assertThat(chunk.getErrors()).hasSize(3);
+        assertThat(chunk.getErrors().get(0)).startsWith("Строка 2: некорректный JSON");
+        assertThat(chunk.getErrors().get(1)).startsWith("Строка 3: email");
+        assertThat(chunk.getErrors().get(2)).isEqualTo("Строка 5: Логин: first повторяется в импорте");
+        assertThat(countRows("users")).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailedChunkIsRetriedRecordByRecord() throws IOException {
+        jdbcTemplate.update("INSERT INTO films (name, description, release_date, duration, rating_id) " +
+                "VALUES ('TestFilm', 'TestDescription', '1990-01-01', 120, 1)");
+        long filmId = jdbcTemplate.queryForObject("SELECT MAX(film_id) FROM films", Long.class);
+        importService.importUsers(ndjson(user("first"), user("second")), null);
+        long firstUserId = jdbcTemplate.queryForObject("SELECT user_id FROM users WHERE login = 'first'", Long.class);
+        long secondUserId = jdbcTemplate.queryForObject("SELECT user_id FROM users WHERE login = 'second'", Long.class);
+
+        ImportReport report = importService.importLikes(ndjson(
+                like(filmId, firstUserId),
+                like(filmId + 1000, firstUserId),
+                like(filmId, secondUserId)), 3);
+
+        assertThat(report.getChunks()).hasSize(1);
+        assertThat(report.getAccepted()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(1);
+        assertThat(report.getChunks().getFirst().getErrors()).singleElement()
+                .asString().startsWith("Строка 2: ");
+        assertThat(countRows("likes")).isEqualTo(2);
+    }
+
+    private int countRows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String user(String login) {
+        return "{\"email\":\"" + login + "@mail.ru\",\"login\":\"" + login + "\",\"name\":\"" + login
+                + "\",\"birthday\":\"1990-01-01\"}";
+    }
+
+    private static String like(long filmId, long userId) {
+        return "{\"filmId\":" + filmId + ",\"userId\":" + userId + "}";
+    }
+
+}
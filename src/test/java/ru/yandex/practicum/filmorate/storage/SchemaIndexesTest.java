@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет по EXPLAIN, что запросы хранилищ идут по индексам из миграций, а не полным сканированием.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SchemaIndexesTest {
+    private static final String TABLE_SCAN = ".tableScan";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testMigrationsApplied() {
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"success\" AND \"version\" IS NOT NULL",
+                Integer.class);
+        Integer genres = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM genres", Integer.class);
+        Integer mpa = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mpa", Integer.class);
+
+        assertThat(applied).isEqualTo(4);
+        assertThat(genres).isEqualTo(6);
+        assertThat(mpa).isEqualTo(5);
+    }
+
+    @Test
+    public void testFilmQueriesUseIndexes() {
+        assertThat(explain("SELECT f.film_id FROM films f ORDER BY f.likes_count DESC, f.film_id LIMIT 10"))
+                .contains("FILMS_LIKES_COUNT_IDX");
+        assertThat(explain("SELECT f.film_id FROM films f WHERE f.rating_id = 1 " +
+                "ORDER BY f.likes_count DESC, f.film_id LIMIT 10"))
+                .contains("FILMS_RATING_LIKES_COUNT_IDX");
+        assertThat(explain("SELECT f.film_id FROM films f " +
+                "WHERE f.release_date >= DATE '1999-01-01' AND f.release_date < DATE '2000-01-01'"))
+                .contains("FILMS_RELEASE_DATE_IDX");
+        assertThat(explain("SELECT f.film_id FROM films f WHERE f.film_id > 10 ORDER BY f.film_id LIMIT 10"))
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    public void testLikeQueriesUseIndexes() {
+        assertThat(explain("SELECT COUNT(*) FROM likes l WHERE l.film_id = 1"))
+                .doesNotContain(TABLE_SCAN);
+        assertThat(explain("SELECT l.film_id FROM likes l WHERE l.user_id = 1"))
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    public void testFriendshipQueriesUseIndexes() {
+        assertThat(explain("SELECT fr.user_id FROM friendship fr WHERE fr.friend_id = 1"))
+                .doesNotContain(TABLE_SCAN);
+        assertThat(explain("SELECT fr.friend_id FROM friendship fr WHERE fr.user_id = 1"))
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    public void testGenreQueriesUseIndexes() {
+        assertThat(explain("SELECT fg.film_id, g.genre_id, g.name FROM film_genres fg " +
+                "INNER JOIN genres g ON fg.genre_id = g.genre_id WHERE fg.film_id IN (1, 2, 3)"))
+                .doesNotContain("FILM_GENRES" + TABLE_SCAN);
+        assertThat(explain("SELECT f.film_id FROM films f WHERE EXISTS " +
+                "(SELECT 1 FROM film_genres fg WHERE fg.film_id = f.film_id AND fg.genre_id = 1)"))
+                .doesNotContain("FILM_GENRES" + TABLE_SCAN);
+        assertThat(explain("SELECT fg.film_id FROM film_genres fg WHERE fg.genre_id = 1"))
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+    }
+
+}
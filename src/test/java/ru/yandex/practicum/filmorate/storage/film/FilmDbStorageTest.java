@@ -7,12 +7,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.mappers.film.FilmResultSetExtractor;
 import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -21,7 +24,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @Import({FilmDbStorage.class,
-        FilmRowMapper.class})
+        FilmRowMapper.class,
+        FilmResultSetExtractor.class})
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class FilmDbStorageTest {
@@ -62,7 +66,9 @@ public class FilmDbStorageTest {
 
     @Test
     public void testUpdateFilm() {
+        Film createdFilm = filmDbStorage.create(testFilm);
         Film updatedFilm = new Film();
+        updatedFilm.setId(createdFilm.getId());
         updatedFilm.setName("UpdatedFilm");
         updatedFilm.setDescription("UpDescription");
         updatedFilm.setReleaseDate(LocalDate.of(1991, 1, 2));
@@ -71,18 +77,25 @@ public class FilmDbStorageTest {
         genres.add(new Genre(3, "PG-13"));
         updatedFilm.setGenres(genres);
 
-        Film savedFilm = filmDbStorage.save(updatedFilm);
+        assertThat(filmDbStorage.update(updatedFilm)).isTrue();
 
-        assertThat(savedFilm).isNotNull();
+        Film savedFilm = filmDbStorage.findById(updatedFilm.getId()).get();
         assertThat(savedFilm.getName()).isEqualTo(updatedFilm.getName());
         assertThat(savedFilm.getDescription()).isEqualTo(updatedFilm.getDescription());
         assertThat(savedFilm.getReleaseDate()).isEqualTo(updatedFilm.getReleaseDate());
         assertThat(savedFilm.getDuration()).isEqualTo(updatedFilm.getDuration());
         assertThat(savedFilm.getMpa()).isEqualTo(updatedFilm.getMpa());
-        assertThat(savedFilm.getGenres().size()).isEqualTo(updatedFilm.getGenres().size());
 
     }
 
+    @Test
+    public void testExistsById() {
+        Film createdFilm = filmDbStorage.create(testFilm);
+
+        assertThat(filmDbStorage.existsById(createdFilm.getId())).isTrue();
+        assertThat(filmDbStorage.existsById(createdFilm.getId() + 1)).isFalse();
+    }
+
     @Test
     public void testUpdatedNoSuchFilm() {
         Film updatedFilm = new Film();
@@ -95,9 +108,10 @@ public class FilmDbStorageTest {
         genres.add(new Genre(3, "PG-13"));
         updatedFilm.setGenres(genres);
 
-        filmDbStorage.save(updatedFilm);
+        boolean updated = filmDbStorage.update(updatedFilm);
         Optional<Film> savedFilm = filmDbStorage.findById(999);
 
+        assertThat(updated).isFalse();
         assertThat(savedFilm).isEmpty();
 
     }
@@ -145,4 +159,48 @@ public class FilmDbStorageTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFindPage() {
+        Film firstFilm = filmDbStorage.create(testFilm);
+        Film secondFilm = new Film();
+        secondFilm.setName("SecondFilm");
+        secondFilm.setDescription("SecondDescription");
+        secondFilm.setReleaseDate(LocalDate.of(1991, 1, 2));
+        secondFilm.setDuration(100L);
+        secondFilm.setMpa(new Mpa(2, "PG"));
+        filmDbStorage.create(secondFilm);
+
+        List<Film> firstPage = filmDbStorage.findPage(0, 1);
+        List<Film> secondPage = filmDbStorage.findPage(firstPage.getLast().getId(), 1);
+        List<Film> lastPage = filmDbStorage.findPage(secondPage.getLast().getId(), 1);
+
+        assertThat(firstPage).extracting(Film::getId).containsExactly(firstFilm.getId());
+        assertThat(secondPage).extracting(Film::getId).containsExactly(secondFilm.getId());
+        assertThat(secondPage.getFirst().getMpa()).isEqualTo(secondFilm.getMpa());
+        assertThat(lastPage).isEmpty();
+    }
+
+    @Test
+    public void testFindByIdsSplitsLongIdLists() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            Film film = new Film();
+            film.setName("Film" + i);
+            film.setDescription("Description");
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(90L);
+            film.setMpa(new Mpa(1, "G"));
+            ids.add(filmDbStorage.create(film).getId());
+        }
+        Collections.reverse(ids);
+        ids.add(1, -1L);
+
+        List<Film> films = filmDbStorage.findByIds(ids);
+
+        assertThat(films).hasSize(501);
+        assertThat(films).extracting(Film::getId).containsExactlyElementsOf(ids.stream()
+                .filter(id -> id != -1L)
+                .toList());
+    }
+
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.mappers.film.FilmGenresRowMapper;
+import ru.yandex.practicum.filmorate.mappers.film.FilmResultSetExtractor;
+import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({FilmDbStorage.class,
+        FilmRowMapper.class,
+        FilmResultSetExtractor.class,
+        FilmGenresDbStorage.class,
+        FilmGenresRowMapper.class,
+        GenreDbStorage.class})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FilmGenresDbStorageTest {
+
+    @Autowired
+    private FilmDbStorage filmDbStorage;
+    @Autowired
+    private FilmGenresDbStorage filmGenresDbStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Film testFilm;
+
+    @BeforeEach
+    public void setUp() {
+        testFilm = new Film();
+        testFilm.setName("TestFilm");
+        testFilm.setDescription("TestDescription");
+        testFilm.setReleaseDate(LocalDate.of(1990, 1, 1));
+        testFilm.setDuration(120L);
+        testFilm.setMpa(new Mpa(1, "G"));
+        filmDbStorage.create(testFilm);
+    }
+
+    @Test
+    public void testCreateGenres() {
+        filmGenresDbStorage.create(testFilm.getId(), genres(1, 2, 3));
+
+        assertThat(findGenreIds()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void testSaveAppliesOnlyDiff() {
+        filmGenresDbStorage.create(testFilm.getId(), genres(1, 2, 3));
+
+        filmGenresDbStorage.save(testFilm.getId(), genres(2, 3, 4));
+
+        assertThat(findGenreIds()).containsExactly(2, 3, 4);
+    }
+
+    @Test
+    public void testSaveWithoutGenresClearsLinks() {
+        filmGenresDbStorage.create(testFilm.getId(), genres(1, 2));
+
+        filmGenresDbStorage.save(testFilm.getId(), new HashSet<>());
+
+        assertThat(findGenreIds()).isEmpty();
+    }
+
+    private List<Integer> findGenreIds() {
+        return jdbcTemplate.queryForList("SELECT genre_id FROM film_genres WHERE film_id = ? ORDER BY genre_id",
+                Integer.class, testFilm.getId());
+    }
+
+    private HashSet<Genre> genres(int... ids) {
+        HashSet<Genre> genres = new HashSet<>();
+        for (int id : ids) {
+            genres.add(new Genre(id, null));
+        }
+        return genres;
+    }
+
+}
@@ -0,0 +1,289 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.mappers.film.FilmResultSetExtractor;
+import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.mappers.user.UserRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.film.CatalogVersions;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({FilmDbStorage.class,
+        FilmRowMapper.class,
+        FilmResultSetExtractor.class,
+        UserDbStorage.class,
+        UserRowMapper.class,
+        LikeDbStorage.class,
+        FilmPopularityIndex.class,
+        LikesCountRepair.class,
+        LikesMatrix.class,
+        MpaDbStorage.class,
+        GenreDbStorage.class,
+        ReferenceDataCache.class,
+        CatalogVersions.class})
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FilmPopularityIndexTest {
+
+    @Autowired
+    private FilmPopularityIndex filmPopularityIndex;
+    @Autowired
+    private FilmDbStorage filmDbStorage;
+    @Autowired
+    private UserDbStorage userDbStorage;
+    @Autowired
+    private LikeDbStorage likeDbStorage;
+    @Autowired
+    private LikesCountRepair likesCountRepair;
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Film firstFilm;
+    private Film secondFilm;
+    private User firstUser;
+    private User secondUser;
+
+    @BeforeEach
+    public void setUp() {
+        firstFilm = filmDbStorage.create(createFilm("FirstFilm"));
+        secondFilm = filmDbStorage.create(createFilm("SecondFilm"));
+        firstUser = userDbStorage.create(createUser("first"));
+        secondUser = userDbStorage.create(createUser("second"));
+        filmPopularityIndex.rebuild();
+    }
+
+    // Индекс обновляется только после коммита, поэтому тесты работают без общей транзакции и чистят данные сами
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM film_genres");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    public void testTopFollowsLikes() {
+        likeDbStorage.addLike(secondFilm.getId(), firstUser.getId());
+        likeDbStorage.addLike(secondFilm.getId(), secondUser.getId());
+        likeDbStorage.addLike(firstFilm.getId(), firstUser.getId());
+
+        assertThat(filmPopularityIndex.getTop(2)).isEqualTo(List.of(secondFilm.getId(), firstFilm.getId()));
+        assertThat(filmPopularityIndex.getLikes(secondFilm.getId())).isEqualTo(2);
+        assertThat(filmPopularityIndex.getTop(1)).hasSize(1);
+    }
+
+    @Test
+    public void testDeleteLikeLowersRank() {
+        likeDbStorage.addLike(secondFilm.getId(), firstUser.getId());
+        likeDbStorage.deleteLike(secondFilm.getId(), firstUser.getId());
+        likeDbStorage.deleteLike(secondFilm.getId(), firstUser.getId());
+
+        assertThat(filmPopularityIndex.getLikes(secondFilm.getId())).isEqualTo(0);
+        assertThat(filmPopularityIndex.getTop(10)).isEqualTo(List.of(firstFilm.getId(), secondFilm.getId()));
+    }
+
+    @Test
+    public void testRolledBackLikeKeepsIndexUnchanged() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            likeDbStorage.addLike(secondFilm.getId(), firstUser.getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(filmPopularityIndex.getLikes(secondFilm.getId())).isEqualTo(0);
+        assertThat(filmPopularityIndex.findInconsistencies()).isEmpty();
+    }
+
+    @Test
+    public void testRebuildAfterLikeCommitDoesNotCountItTwice() {
+        List<CompletableFuture<Void>> rebuild = new ArrayList<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            likeDbStorage.addLike(secondFilm.getId(), firstUser.getId());
+            // Перестроение запускается сразу после коммита лайка, раньше чем лайк учтен в памяти
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    CompletableFuture<Void> started = CompletableFuture.runAsync(() -> filmPopularityIndex.rebuild());
+                    rebuild.add(started);
+                    try {
+                        started.get(500, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // Ожидаемо: перестроение ждет, пока лайк будет применен
+                    } catch (InterruptedException | ExecutionException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        });
+        rebuild.getFirst().join();
+
+        assertThat(filmPopularityIndex.getLikes(secondFilm.getId())).isEqualTo(1);
+        assertThat(filmPopularityIndex.findInconsistencies()).isEmpty();
+    }
+
+    @Test
+    public void testIndexConsistentWithLikesTable() {
+        likeDbStorage.addLike(firstFilm.getId(), firstUser.getId());
+        likeDbStorage.addLike(firstFilm.getId(), secondUser.getId());
+
+        assertThat(filmPopularityIndex.findInconsistencies()).isEmpty();
+
+        filmPopularityIndex.decrement(firstFilm.getId());
+        assertThat(filmPopularityIndex.findInconsistencies()).containsEntry(firstFilm.getId(), 2L);
+
+        filmPopularityIndex.rebuild();
+        assertThat(filmPopularityIndex.findInconsistencies()).isEmpty();
+    }
+
+    @Test
+    public void testPopularQueryReadsStoredLikesCount() {
+        likeDbStorage.addLike(secondFilm.getId(), firstUser.getId());
+        likeDbStorage.addLike(secondFilm.getId(), secondUser.getId());
+        likeDbStorage.addLike(firstFilm.getId(), firstUser.getId());
+        likeDbStorage.deleteLike(firstFilm.getId(), firstUser.getId());
+
+        assertThat(findLikesCount(secondFilm.getId())).isEqualTo(2);
+        assertThat(findLikesCount(firstFilm.getId())).isZero();
+        assertThat(filmDbStorage.getPopularFilms(2))
+                .extracting(Film::getId)
+                .containsExactly(secondFilm.getId(), firstFilm.getId());
+    }
+
+    @Test
+    public void testRepairRecountsDriftedLikesCount() {
+        likeDbStorage.addLike(firstFilm.getId(), firstUser.getId());
+        likeDbStorage.addLike(firstFilm.getId(), secondUser.getId());
+        jdbcTemplate.update("UPDATE films SET likes_count = 5 WHERE film_id = ?", secondFilm.getId());
+        filmPopularityIndex.rebuild();
+
+        assertThat(filmPopularityIndex.getTop(1)).containsExactly(secondFilm.getId());
+        String catalogTag = catalogVersions.catalogTag();
+        assertThat(likesCountRepair.repair()).isEqualTo(1);
+        assertThat(findLikesCount(secondFilm.getId())).isZero();
+        assertThat(filmPopularityIndex.getTop(1)).containsExactly(firstFilm.getId());
+        assertThat(catalogVersions.catalogTag()).isNotEqualTo(catalogTag);
+
+        String repairedTag = catalogVersions.catalogTag();
+        assertThat(likesCountRepair.repair()).isZero();
+        assertThat(catalogVersions.catalogTag()).isEqualTo(repairedTag);
+    }
+
+    @Test
+    public void testFilteredTopFromFacetsMatchesSql() {
+        Film thirdFilm = createFilm("ThirdFilm");
+        thirdFilm.setMpa(new Mpa(2, "PG"));
+        thirdFilm.setReleaseDate(LocalDate.of(2000, 5, 1));
+        thirdFilm.getGenres().add(new Genre(1, "Комедия"));
+        filmDbStorage.create(thirdFilm);
+        filmPopularityIndex.register(thirdFilm);
+        likeDbStorage.addLike(thirdFilm.getId(), firstUser.getId());
+        likeDbStorage.addLike(secondFilm.getId(), firstUser.getId());
+        likeDbStorage.addLike(secondFilm.getId(), secondUser.getId());
+
+        assertThat(filmPopularityIndex.getTop(10, null, 1, null))
+                .contains(List.of(secondFilm.getId(), firstFilm.getId()));
+        assertThat(filmPopularityIndex.getTop(10, 1, 2, 2000)).contains(List.of(thirdFilm.getId()));
+        assertThat(filmPopularityIndex.getTop(10, 1, 1, null)).contains(List.of());
+        assertThat(filmPopularityIndex.getTop(10, null, null, 1990))
+                .contains(List.of(secondFilm.getId(), firstFilm.getId()));
+        assertThat(filmDbStorage.getPopularFilms(10, null, null, 1990))
+                .extracting(Film::getId)
+                .containsExactly(secondFilm.getId(), firstFilm.getId());
+        assertThat(filmDbStorage.getPopularFilms(10, null, 2, 2000))
+                .extracting(Film::getId)
+                .containsExactly(thirdFilm.getId());
+    }
+
+    @Test
+    public void testCombinedFilterScansNarrowestFacet() {
+        // Срез года заметно больше лимита просмотра, а нужный фильм в нем последний
+        long firstId = secondFilm.getId() + 1_000;
+        for (long id = firstId; id < firstId + 20_000; id++) {
+            Film film = createFilm("Film" + id);
+            film.setId(id);
+            filmPopularityIndex.register(film);
+        }
+        Film dramaFilm = createFilm("DramaFilm");
+        dramaFilm.setId(firstId + 20_000);
+        dramaFilm.getGenres().add(new Genre(2, "Драма"));
+        filmPopularityIndex.register(dramaFilm);
+
+        assertThat(filmPopularityIndex.getTop(10, 2, null, 1990)).contains(List.of(dramaFilm.getId()));
+        assertThat(filmPopularityIndex.getTop(10, 2, 1, 1990)).contains(List.of(dramaFilm.getId()));
+    }
+
+    @Test
+    public void testRegisterMovesFilmBetweenFacets() {
+        likeDbStorage.addLike(firstFilm.getId(), firstUser.getId());
+        assertThat(filmPopularityIndex.getTop(10, null, 3, null)).contains(List.of());
+
+        firstFilm.setMpa(new Mpa(3, "PG-13"));
+        filmPopularityIndex.register(firstFilm);
+
+        assertThat(filmPopularityIndex.getTop(10, null, 3, null)).contains(List.of(firstFilm.getId()));
+        assertThat(filmPopularityIndex.getTop(10, null, 1, null)).contains(List.of(secondFilm.getId()));
+        assertThat(filmPopularityIndex.getLikes(firstFilm.getId())).isEqualTo(1);
+    }
+
+    private long findLikesCount(long filmId) {
+        return jdbcTemplate.queryForObject("SELECT likes_count FROM films WHERE film_id = ?", Long.class, filmId);
+    }
+
+    private Film createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(1990, 1, 1));
+        film.setDuration(120L);
+        film.setMpa(new Mpa(1, "G"));
+        return film;
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+}
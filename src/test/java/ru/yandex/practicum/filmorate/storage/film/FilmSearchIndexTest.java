@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.mappers.film.FilmResultSetExtractor;
+import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({FilmDbStorage.class,
+        FilmRowMapper.class,
+        FilmResultSetExtractor.class,
+        FilmSearchIndex.class})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FilmSearchIndexTest {
+
+    @Autowired
+    private FilmSearchIndex filmSearchIndex;
+    @Autowired
+    private FilmDbStorage filmDbStorage;
+
+    private Film matrix;
+    private Film hacker;
+    private Film comedy;
+
+    @BeforeEach
+    public void setUp() {
+        matrix = filmDbStorage.create(createFilm("Матрица", "Хакер узнает правду о мире"));
+        hacker = filmDbStorage.create(createFilm("Хакеры", "Подростки против корпорации, отсылки к Матрице"));
+        comedy = filmDbStorage.create(createFilm("Ёлки", "Новогодняя комедия"));
+        filmSearchIndex.rebuild();
+    }
+
+    @Test
+    public void testNameMatchRanksAboveDescription() {
+        assertThat(filmSearchIndex.search("матрица", 0, 10)).containsExactly(matrix.getId(), hacker.getId());
+        assertThat(filmSearchIndex.search("елки", 0, 10)).containsExactly(comedy.getId());
+        assertThat(filmSearchIndex.search("титаник", 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testPartialWordMatches() {
+        assertThat(filmSearchIndex.search("хакер", 0, 10)).containsExactlyInAnyOrder(hacker.getId(), matrix.getId());
+        assertThat(filmSearchIndex.search("корпорац", 0, 10)).containsExactly(hacker.getId());
+    }
+
+    @Test
+    public void testPagination() {
+        assertThat(filmSearchIndex.search("матрица", 0, 1)).containsExactly(matrix.getId());
+        assertThat(filmSearchIndex.search("матрица", 1, 1)).containsExactly(hacker.getId());
+        assertThat(filmSearchIndex.search("матрица", 2, 1)).isEmpty();
+    }
+
+    @Test
+    public void testReindexAfterUpdate() {
+        comedy.setName("Титаник");
+        comedy.setDescription("Драма о любви");
+        filmSearchIndex.index(comedy);
+
+        assertThat(filmSearchIndex.search("елки", 0, 10)).isEmpty();
+        assertThat(filmSearchIndex.search("титаник", 0, 10)).containsExactly(comedy.getId());
+        assertThat(filmSearchIndex.size()).isEqualTo(3);
+    }
+
+    private Film createFilm(String name, String description) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(description);
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(136L);
+        film.setMpa(new Mpa(4, "R"));
+        return film;
+    }
+
+}
@@ -6,30 +6,38 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.mappers.film.FilmGenresRowMapper;
+import ru.yandex.practicum.filmorate.mappers.film.FilmResultSetExtractor;
+import ru.yandex.practicum.filmorate.mappers.film.FilmRowMapper;
 import ru.yandex.practicum.filmorate.mappers.film.GenreRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
 
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @Import({GenreDbStorage.class,
-        GenreRowMapper.class})
+        GenreRowMapper.class,
+        FilmDbStorage.class,
+        FilmRowMapper.class,
+        FilmResultSetExtractor.class,
+        FilmGenresDbStorage.class,
+        FilmGenresRowMapper.class})
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class GenreDbStorageTest {
 
     @Autowired
     private GenreDbStorage genreDbStorage;
-
-    @Test
-    public void testFindGenreById() {
-        Genre genre = genreDbStorage.findGenreById(1).get();
-        assertThat(genre).isNotNull();
-        assertThat(genre.getId()).isEqualTo(1);
-        assertThat(genre.getName()).isEqualTo("Комедия");
-    }
+    @Autowired
+    private FilmDbStorage filmDbStorage;
+    @Autowired
+    private FilmGenresDbStorage filmGenresDbStorage;
 
     @Test
     public void testFindAllGenres() {
@@ -40,4 +48,42 @@ class GenreDbStorageTest {
         System.out.println(genres);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFilmReadsIncludeGenres() {
+        Film withGenres = filmDbStorage.create(createFilm("WithGenres"));
+        Film withoutGenres = filmDbStorage.create(createFilm("WithoutGenres"));
+        filmGenresDbStorage.create(withGenres.getId(), new HashSet<>(List.of(
+                new Genre(1, "Комедия"),
+                new Genre(2, "Драма"))));
+        List<Genre> expected = List.of(new Genre(1, "Комедия"), new Genre(2, "Драма"));
+
+        assertThat(filmDbStorage.findById(withGenres.getId()).get().getGenres())
+                .containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(filmDbStorage.findById(withoutGenres.getId()).get().getGenres()).isEmpty();
+
+        List<Film> all = filmDbStorage.findAll();
+        assertThat(all).extracting(Film::getId).containsExactly(withGenres.getId(), withoutGenres.getId());
+        assertThat(all.getFirst().getGenres()).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(all.getFirst().getMpa()).isEqualTo(new Mpa(1, "G"));
+
+        List<Film> page = filmDbStorage.findPage(0, 1);
+        assertThat(page).extracting(Film::getId).containsExactly(withGenres.getId());
+        assertThat(page.getFirst().getGenres()).containsExactlyInAnyOrderElementsOf(expected);
+
+        List<Film> popular = filmDbStorage.getPopularFilms(10, 2, null, null);
+        assertThat(popular).extracting(Film::getId).containsExactly(withGenres.getId());
+        assertThat(popular.getFirst().getGenres()).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(filmDbStorage.getPopularFilms(1)).hasSize(1);
+    }
+
+    private Film createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(1990, 1, 1));
+        film.setDuration(120L);
+        film.setMpa(new Mpa(1, "G"));
+        return film;
+    }
+
+}
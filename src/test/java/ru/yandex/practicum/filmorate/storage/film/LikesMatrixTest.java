@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import(LikesMatrix.class)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class LikesMatrixTest {
+
+    @Autowired
+    private LikesMatrix likesMatrix;
+
+    @BeforeEach
+    public void setUp() {
+        likesMatrix.rebuild();
+    }
+
+    @Test
+    public void testRecommendsFilmsOfMostSimilarUsers() {
+        // Пользователь 1 лайкнул фильмы 1 и 2, пользователь 2 совпадает с ним полностью, пользователь 3 частично
+        likesMatrix.add(1, 1);
+        likesMatrix.add(2, 1);
+        likesMatrix.add(1, 2);
+        likesMatrix.add(2, 2);
+        likesMatrix.add(3, 2);
+        likesMatrix.add(1, 3);
+        likesMatrix.add(4, 3);
+
+        assertThat(likesMatrix.recommend(1, 10)).containsExactly(3L, 4L);
+        assertThat(likesMatrix.recommend(1, 1)).containsExactly(3L);
+        assertThat(likesMatrix.recommend(99, 10)).isEmpty();
+    }
+
+    @Test
+    public void testRemoveLikeUpdatesRecommendations() {
+        likesMatrix.add(1, 1);
+        likesMatrix.add(1, 2);
+        likesMatrix.add(2, 2);
+
+        assertThat(likesMatrix.recommend(1, 10)).containsExactly(2L);
+
+        likesMatrix.add(2, 1);
+        assertThat(likesMatrix.recommend(1, 10)).isEmpty();
+
+        likesMatrix.remove(1, 2);
+        assertThat(likesMatrix.recommend(1, 10)).isEmpty();
+    }
+
+    @Test
+    public void testParallelScoringMatchesSequential() {
+        for (long filmId = 1; filmId <= 500; filmId++) {
+            likesMatrix.add(filmId, 1);
+            if (filmId % 2 == 0) {
+                likesMatrix.add(filmId, 2);
+            }
+            if (filmId % 5 == 0) {
+                likesMatrix.add(filmId, 3);
+            }
+        }
+        likesMatrix.add(1000, 2);
+        likesMatrix.add(2000, 3);
+
+        assertThat(likesMatrix.recommend(1, 10)).containsExactly(1000L, 2000L);
+    }
+
+}
@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({MpaDbStorage.class,
+        GenreDbStorage.class,
+        ReferenceDataCache.class})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReferenceDataCacheTest {
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Test
+    public void testFindAllFromCache() {
+        List<Mpa> mpas = referenceDataCache.findAllMpa();
+        List<Genre> genres = referenceDataCache.findAllGenres();
+
+        assertThat(mpas).hasSize(5);
+        assertThat(mpas.getFirst()).isEqualTo(new Mpa(1, "G"));
+        assertThat(genres).hasSize(6);
+        assertThat(genres.getLast()).isEqualTo(new Genre(6, "Боевик"));
+    }
+
+    @Test
+    public void testHitMissAndUnknownIdCounters() {
+        referenceDataCache.findAllMpa();
+        long hits = referenceDataCache.getHits();
+        long misses = referenceDataCache.getMisses();
+        long unknownIds = referenceDataCache.getUnknownIds();
+
+        assertThat(referenceDataCache.findMpaById(3)).contains(new Mpa(3, "PG-13"));
+        assertThat(referenceDataCache.findGenreById(2)).contains(new Genre(2, "Драма"));
+        assertThat(referenceDataCache.findMpaById(99)).isEmpty();
+        assertThat(referenceDataCache.findGenreById(-1)).isEmpty();
+
+        assertThat(referenceDataCache.getHits() - hits).isEqualTo(4);
+        assertThat(referenceDataCache.getMisses() - misses).isZero();
+        assertThat(referenceDataCache.getUnknownIds() - unknownIds).isEqualTo(2);
+
+        referenceDataCache.invalidate();
+        referenceDataCache.findMpaById(1);
+
+        assertThat(referenceDataCache.getMisses() - misses).isEqualTo(1);
+    }
+
+    @Test
+    public void testFindGenresByIdsSkipsUnknown() {
+        List<Genre> genres = referenceDataCache.findGenresByIds(List.of(1, 3, 42));
+
+        assertThat(genres).containsExactly(new Genre(1, "Комедия"), new Genre(3, "Мультфильм"));
+    }
+
+    @Test
+    public void testInvalidateReloadsWithNewVersion() {
+        long version = referenceDataCache.getVersion();
+
+        referenceDataCache.invalidate();
+
+        assertThat(referenceDataCache.findAllGenres()).hasSize(6);
+        assertThat(referenceDataCache.getVersion()).isGreaterThan(version);
+    }
+
+    @Test
+    public void testVersionReadIsNotCountedAndDoesNotReload() {
+        referenceDataCache.findAllMpa();
+        long version = referenceDataCache.getVersion();
+        long hits = referenceDataCache.getHits();
+        long misses = referenceDataCache.getMisses();
+
+        referenceDataCache.invalidate();
+        long invalidatedVersion = referenceDataCache.getVersion();
+
+        assertThat(invalidatedVersion).isGreaterThan(version);
+        assertThat(referenceDataCache.getVersion()).isEqualTo(invalidatedVersion);
+        assertThat(referenceDataCache.getHits()).isEqualTo(hits);
+        assertThat(referenceDataCache.getMisses()).isEqualTo(misses);
+    }
+
+    @Test
+    public void testConcurrentReadsAfterInvalidateReloadOnce() throws Exception {
+        referenceDataCache.invalidate();
+        long misses = referenceDataCache.getMisses();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<Genre>>> loaded = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                loaded.add(executor.submit(() -> {
+                    start.await();
+                    return referenceDataCache.findAllGenres();
+                }));
+            }
+            start.countDown();
+            for (Future<List<Genre>> genres : loaded) {
+                assertThat(genres.get()).hasSize(6);
+            }
+            assertThat(referenceDataCache.getMisses() - misses).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
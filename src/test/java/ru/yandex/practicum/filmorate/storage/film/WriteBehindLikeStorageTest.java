@@ -0,0 +1,202 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@Import({WriteBehindLikeStorage.class,
+        LikeDbStorage.class,
+        FilmPopularityIndex.class,
+        LikesMatrix.class})
+@AutoConfigureTestDatabase
+@TestPropertySource(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.durability=BUFFERED",
+        "filmorate.likes.write-behind.flush-interval=1h"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class WriteBehindLikeStorageTest {
+
+    @Autowired
+    private WriteBehindLikeStorage likeStorage;
+    @Autowired
+    private FilmPopularityIndex filmPopularityIndex;
+    @Autowired
+    private LikeDbStorage likeDbStorage;
+    @Autowired
+    private LikesMatrix likesMatrix;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long filmId;
+    private long userId;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO films (name, description, release_date, duration, rating_id) " +
+                "VALUES ('TestFilm', 'TestDescription', '1990-01-01', 120, 1)");
+        jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) " +
+                "VALUES ('test@mail.ru', 'TestLogin', 'TestName', '1990-01-01')");
+        filmId = jdbcTemplate.queryForObject("SELECT MAX(film_id) FROM films", Long.class);
+        userId = jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM users", Long.class);
+        filmPopularityIndex.register(filmId);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        likeStorage.flush();
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    public void testLikeIsVisibleBeforeFlushAndPersistedAfter() {
+        likeStorage.addLike(filmId, userId);
+
+        assertThat(filmPopularityIndex.getLikes(filmId)).isEqualTo(1);
+        assertThat(likeStorage.size()).isEqualTo(1);
+        assertThat(countLikes()).isZero();
+
+        likeStorage.flush();
+
+        assertThat(likeStorage.size()).isZero();
+        assertThat(countLikes()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLikeAndUnlikeCancelOut() {
+        likeStorage.addLike(filmId, userId);
+        likeStorage.deleteLike(filmId, userId);
+
+        assertThat(likeStorage.size()).isZero();
+        assertThat(filmPopularityIndex.getLikes(filmId)).isZero();
+
+        likeStorage.addLike(filmId, userId);
+        likeStorage.flush();
+        likeStorage.deleteLike(filmId, userId);
+        likeStorage.flush();
+
+        assertThat(countLikes()).isZero();
+    }
+
+    @Test
+    public void testDuplicateLikeIsRejected() {
+        likeStorage.addLike(filmId, userId);
+
+        assertThatThrownBy(() -> likeStorage.addLike(filmId, userId))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(filmPopularityIndex.getLikes(filmId)).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailedWriteIsReportedToCommitCaller() {
+        WriteBehindLikeStorage commitStorage = new WriteBehindLikeStorage(jdbcTemplate, transactionManager,
+                likeDbStorage, filmPopularityIndex, likesMatrix, WriteBehindLikeStorage.Durability.COMMIT,
+                500, 10_000, Duration.ofHours(1));
+        commitStorage.start();
+        try {
+            long missingUserId = userId + 1000;
+            assertThatThrownBy(() -> commitStorage.addLike(filmId, missingUserId))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+            assertThat(filmPopularityIndex.getLikes(filmId)).isZero();
+
+            commitStorage.addLike(filmId, userId);
+            assertThat(countLikes()).isEqualTo(1);
+        } finally {
+            commitStorage.stop();
+        }
+    }
+
+    @Test
+    public void testFailedCommitRevertsAllOperationsInMemory() {
+        // Менеджер откатывает транзакцию и сообщает об ошибке коммита, которая не является DataAccessException
+        PlatformTransactionManager failingCommit = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.rollback(status);
+                throw new TransactionSystemException("Коммит не удался");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        WriteBehindLikeStorage commitStorage = new WriteBehindLikeStorage(jdbcTemplate, failingCommit,
+                likeDbStorage, filmPopularityIndex, likesMatrix, WriteBehindLikeStorage.Durability.COMMIT,
+                500, 10_000, Duration.ofHours(1));
+        commitStorage.start();
+        try {
+            assertThatThrownBy(() -> commitStorage.addLike(filmId, userId))
+                    .isInstanceOf(TransactionSystemException.class);
+
+            assertThat(filmPopularityIndex.getLikes(filmId)).isZero();
+            assertThat(likesMatrix.remove(filmId, userId)).isFalse();
+            assertThat(countLikes()).isZero();
+        } finally {
+            commitStorage.stop();
+        }
+    }
+
+    @Test
+    public void testCheckpointFailureDoesNotRejectCommittedLike() {
+        JdbcTemplate failingCheckpoint = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void execute(String sql) {
+                if (sql.startsWith("CHECKPOINT")) {
+                    throw new DataAccessResourceFailureException("Диск недоступен");
+                }
+                super.execute(sql);
+            }
+        };
+        WriteBehindLikeStorage fsyncStorage = new WriteBehindLikeStorage(failingCheckpoint, transactionManager,
+                likeDbStorage, filmPopularityIndex, likesMatrix, WriteBehindLikeStorage.Durability.FSYNC,
+                500, 10_000, Duration.ofHours(1));
+        fsyncStorage.start();
+        try {
+            fsyncStorage.addLike(filmId, userId);
+
+            assertThat(countLikes()).isEqualTo(1);
+            assertThat(filmPopularityIndex.getLikes(filmId)).isEqualTo(1);
+            assertThat(fsyncStorage.getCheckpointFailures()).isEqualTo(1);
+        } finally {
+            fsyncStorage.stop();
+        }
+    }
+
+    private int countLikes() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?",
+                Integer.class, filmId, userId);
+    }
+
+}
@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.FilmGenresStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.film.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataCache;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@ActiveProfiles("in-memory")
+// Хранилища в памяти не откатываются вместе с транзакцией теста, поэтому контекст пересоздается
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import({InMemoryFilmStorage.class,
+        InMemoryFilmGenresStorage.class,
+        InMemoryLikeStorage.class,
+        FilmPopularityIndex.class,
+        LikesMatrix.class,
+        MpaDbStorage.class,
+        GenreDbStorage.class,
+        ReferenceDataCache.class})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class InMemoryFilmStorageTest {
+
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private FilmGenresStorage filmGenresStorage;
+    @Autowired
+    private LikeStorage likeStorage;
+
+    private Film testFilm;
+
+    @BeforeEach
+    public void setUp() {
+        testFilm = film("TestFilm");
+    }
+
+    @Test
+    public void testCreateAndFindById() {
+        Film createdFilm = filmStorage.create(testFilm);
+        Film findFilm = filmStorage.findById(createdFilm.getId()).get();
+
+        assertThat(findFilm.getName()).isEqualTo("TestFilm");
+        assertThat(findFilm.getReleaseDate()).isEqualTo(LocalDate.of(1990, 1, 1));
+        assertThat(findFilm.getMpa()).isEqualTo(new Mpa(1, "G"));
+        assertThat(filmStorage.findById(createdFilm.getId() + 1)).isEmpty();
+    }
+
+    @Test
+    public void testUpdateFilm() {
+        Film createdFilm = filmStorage.create(testFilm);
+        Film updatedFilm = film("UpdatedFilm");
+        updatedFilm.setId(createdFilm.getId());
+        updatedFilm.setMpa(new Mpa(2, null));
+
+        assertThat(filmStorage.update(updatedFilm)).isTrue();
+
+        Film findFilm = filmStorage.findById(createdFilm.getId()).get();
+        assertThat(findFilm.getName()).isEqualTo("UpdatedFilm");
+        assertThat(findFilm.getMpa()).isEqualTo(new Mpa(2, "PG"));
+    }
+
+    @Test
+    public void testGenresAreHydratedFromCache() {
+        Film createdFilm = filmStorage.create(testFilm);
+        filmGenresStorage.create(createdFilm.getId(), genres(1, 2));
+        filmGenresStorage.save(createdFilm.getId(), genres(2, 3));
+
+        Film findFilm = filmStorage.findById(createdFilm.getId()).get();
+
+        assertThat(findFilm.getGenres())
+                .containsExactlyInAnyOrder(new Genre(2, "Драма"), new Genre(3, "Мультфильм"));
+    }
+
+    @Test
+    public void testPopularFilmsByLikes() {
+        Film first = filmStorage.create(film("First"));
+        Film second = filmStorage.create(film("Second"));
+
+        likeStorage.addLike(second.getId(), 1);
+        likeStorage.addLike(second.getId(), 2);
+        likeStorage.addLike(first.getId(), 1);
+        assertThatThrownBy(() -> likeStorage.addLike(first.getId(), 1))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        assertThat(filmStorage.getPopularFilms(2)).extracting(Film::getId)
+                .containsExactly(second.getId(), first.getId());
+
+        likeStorage.deleteLike(second.getId(), 1);
+        likeStorage.deleteLike(second.getId(), 2);
+
+        assertThat(filmStorage.getPopularFilms(2)).extracting(Film::getId)
+                .containsExactly(first.getId(), second.getId());
+    }
+
+    private Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("TestDescription");
+        film.setReleaseDate(LocalDate.of(1990, 1, 1));
+        film.setDuration(120L);
+        film.setMpa(new Mpa(1, "G"));
+        return film;
+    }
+
+    private HashSet<Genre> genres(int... ids) {
+        HashSet<Genre> genres = new HashSet<>();
+        for (int id : ids) {
+            genres.add(new Genre(id, null));
+        }
+        return genres;
+    }
+
+}
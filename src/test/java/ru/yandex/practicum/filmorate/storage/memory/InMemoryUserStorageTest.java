@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@ActiveProfiles("in-memory")
+// Хранилища в памяти не откатываются вместе с транзакцией теста, поэтому контекст пересоздается
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import({InMemoryUserStorage.class,
+        InMemoryFriendStorage.class})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class InMemoryUserStorageTest {
+
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private FriendStorage friendStorage;
+
+    private User testUser;
+
+    @BeforeEach
+    public void setUp() {
+        testUser = user("testlogin", "test@mail.ru");
+    }
+
+    @Test
+    public void testCreateAndFindById() {
+        User createdUser = userStorage.create(testUser);
+        User findUser = userStorage.findById(createdUser.getId()).get();
+
+        assertThat(findUser.getId()).isPositive();
+        assertThat(findUser.getLogin()).isEqualTo("testlogin");
+        assertThat(findUser.getName()).isEqualTo("Test User");
+        assertThat(findUser.getBirthday()).isEqualTo(LocalDate.of(1990, 1, 1));
+        assertThat(userStorage.findById(createdUser.getId() + 1)).isEmpty();
+    }
+
+    @Test
+    public void testUpdateUser() {
+        User createdUser = userStorage.create(testUser);
+        User updatedUser = user("updatedlogin", "updatedUser@mail.ru");
+        updatedUser.setId(createdUser.getId());
+
+        userStorage.save(updatedUser);
+
+        assertThat(userStorage.findById(createdUser.getId()).get().getLogin()).isEqualTo("updatedlogin");
+        assertThat(userStorage.existsByLogin("testlogin")).isFalse();
+        assertThat(userStorage.existsByLogin("updatedlogin")).isTrue();
+        assertThat(userStorage.existsByEmail("updatedUser@mail.ru")).isTrue();
+    }
+
+    @Test
+    public void testDuplicateLoginIsRejected() {
+        userStorage.create(testUser);
+
+        assertThatThrownBy(() -> userStorage.create(user("testlogin", "other@mail.ru")))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(userStorage.existsByEmail("other@mail.ru")).isFalse();
+    }
+
+    @Test
+    public void testFindPage() {
+        User first = userStorage.create(user("first", "first@mail.ru"));
+        User second = userStorage.create(user("second", "second@mail.ru"));
+        User third = userStorage.create(user("third", "third@mail.ru"));
+
+        assertThat(userStorage.findPage(0, 2)).extracting(User::getId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(userStorage.findPage(second.getId(), 2)).extracting(User::getId)
+                .containsExactly(third.getId());
+    }
+
+    @Test
+    public void testFriendsAndCommonFriends() {
+        User user = userStorage.create(user("user", "user@mail.ru"));
+        User other = userStorage.create(user("other", "other@mail.ru"));
+        User common = userStorage.create(user("common", "common@mail.ru"));
+
+        friendStorage.addFriend(user.getId(), other.getId());
+        friendStorage.addFriend(user.getId(), common.getId());
+        friendStorage.addFriend(other.getId(), common.getId());
+
+        assertThat(friendStorage.getUserFriends(user.getId())).extracting(User::getId)
+                .containsExactly(other.getId(), common.getId());
+        assertThat(friendStorage.findCommonFriends(user.getId(), other.getId())).extracting(User::getId)
+                .containsExactly(common.getId());
+        assertThatThrownBy(() -> friendStorage.addFriend(user.getId(), other.getId()))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        friendStorage.deleteFriend(user.getId(), common.getId());
+
+        assertThat(friendStorage.findCommonFriends(user.getId(), other.getId())).isEmpty();
+        assertThat(friendStorage.getUserFriends(other.getId())).extracting(User::getId)
+                .containsExactly(common.getId());
+    }
+
+    private User user(String login, String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName("Test User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+}
@@ -1,12 +1,16 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.mappers.user.UserRowMapper;
 import ru.yandex.practicum.filmorate.model.User;
 
@@ -17,8 +21,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 @JdbcTest
 @Import({UserDbStorage.class,
         UserRowMapper.class,
-        FriendDbStorage.class})
+        FriendDbStorage.class,
+        FriendshipGraph.class})
 @AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class FriendDbStorageTest {
 
@@ -26,6 +32,10 @@ public class FriendDbStorageTest {
     private FriendDbStorage friendDbStorage;
     @Autowired
     private UserDbStorage userDbStorage;
+    @Autowired
+    private FriendshipGraph friendshipGraph;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     private User testUser;
     private User friendTestUser;
@@ -56,6 +66,14 @@ public class FriendDbStorageTest {
         userDbStorage.create(commonTestFriend);
     }
 
+    // Граф обновляется только после коммита, поэтому тесты работают без общей транзакции и чистят данные сами
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM friendship");
+        jdbcTemplate.update("DELETE FROM users");
+        friendshipGraph.rebuild();
+    }
+
     @Test
     public void testAddFriend() {
         friendDbStorage.addFriend(testUser.getId(), friendTestUser.getId());
@@ -91,4 +109,51 @@ public class FriendDbStorageTest {
                 .findCommonFriends(testUser.getId(), friendTestUser.getId()).size()).isEqualTo(1);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testCommonFriendsAfterGraphRebuild() {
+        friendDbStorage.addFriend(testUser.getId(), commonTestFriend.getId());
+        friendDbStorage.addFriend(testUser.getId(), friendTestUser.getId());
+        friendDbStorage.addFriend(friendTestUser.getId(), commonTestFriend.getId());
+
+        friendshipGraph.rebuild();
+
+        assertThat(friendshipGraph.getFriends(testUser.getId()))
+                .containsExactly(friendTestUser.getId(), commonTestFriend.getId());
+        assertThat(friendDbStorage.findCommonFriends(testUser.getId(), friendTestUser.getId()))
+                .extracting(User::getId)
+                .containsExactly(commonTestFriend.getId());
+    }
+
+    @Test
+    public void testSuggestionsAreRecalculatedAfterFriendshipChange() {
+        friendDbStorage.addFriend(testUser.getId(), friendTestUser.getId());
+        friendDbStorage.addFriend(friendTestUser.getId(), commonTestFriend.getId());
+        friendDbStorage.addFriend(friendTestUser.getId(), testUser.getId());
+
+        assertThat(friendDbStorage.findSuggestions(testUser.getId(), 10))
+                .extracting(User::getId)
+                .containsExactly(commonTestFriend.getId());
+
+        friendDbStorage.addFriend(testUser.getId(), commonTestFriend.getId());
+
+        assertThat(friendDbStorage.findSuggestions(testUser.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    public void testGraphConsistentWithFriendshipTable() {
+        friendDbStorage.addFriend(testUser.getId(), friendTestUser.getId());
+        friendDbStorage.addFriend(friendTestUser.getId(), commonTestFriend.getId());
+
+        assertThat(friendshipGraph.findInconsistencies()).isEmpty();
+
+        jdbcTemplate.update("INSERT INTO friendship(user_id, friend_id) VALUES (?, ?)",
+                testUser.getId(), commonTestFriend.getId());
+        friendshipGraph.add(commonTestFriend.getId(), testUser.getId());
+        assertThat(friendshipGraph.findInconsistencies())
+                .containsExactlyInAnyOrder(testUser.getId(), commonTestFriend.getId());
+
+        friendshipGraph.rebuild();
+        assertThat(friendshipGraph.findInconsistencies()).isEmpty();
+    }
+
+}
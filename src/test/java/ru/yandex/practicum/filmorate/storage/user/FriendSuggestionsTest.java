@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FriendSuggestionsTest {
+
+    private final Map<Long, long[]> friendsByUser = new HashMap<>();
+    private final AtomicInteger reads = new AtomicInteger();
+    private final FriendSuggestions suggestions = new FriendSuggestions(userId -> {
+        reads.incrementAndGet();
+        return friendsByUser.get(userId);
+    });
+
+    @Test
+    public void testCachedUntilVisitedFriendChanges() {
+        friendsByUser.put(1L, new long[]{2});
+        friendsByUser.put(2L, new long[]{3});
+
+        assertThat(suggestions.suggest(1, 10)).containsExactly(3);
+        int readsAfterCompute = reads.get();
+        assertThat(suggestions.suggest(1, 10)).containsExactly(3);
+        assertThat(reads).hasValue(readsAfterCompute);
+
+        friendsByUser.put(2L, new long[]{3, 4});
+        suggestions.changed(2);
+
+        assertThat(suggestions.suggest(1, 10)).containsExactly(3, 4);
+    }
+
+    @Test
+    public void testChangeOfUnrelatedUserKeepsEntry() {
+        friendsByUser.put(1L, new long[]{2});
+        friendsByUser.put(2L, new long[]{3});
+        suggestions.suggest(1, 10);
+        int readsAfterCompute = reads.get();
+
+        friendsByUser.put(5L, new long[]{6});
+        suggestions.changed(5);
+
+        assertThat(suggestions.suggest(1, 10)).containsExactly(3);
+        assertThat(reads).hasValue(readsAfterCompute);
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        friendsByUser.put(0L, new long[]{1});
+        suggestions.suggest(0, 10);
+        for (long userId = 1; userId <= FriendSuggestions.MAX_CACHED_USERS; userId++) {
+            suggestions.suggest(userId, 10);
+        }
+        int readsBefore = reads.get();
+
+        suggestions.suggest(0, 10);
+
+        assertThat(reads.get()).isGreaterThan(readsBefore);
+    }
+
+}
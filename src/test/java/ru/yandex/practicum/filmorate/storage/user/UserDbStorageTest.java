@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
 import ru.yandex.practicum.filmorate.mappers.user.UserRowMapper;
 import ru.yandex.practicum.filmorate.model.User;
 
@@ -15,6 +16,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @JdbcTest
 @Import({UserDbStorage.class,
@@ -117,4 +119,43 @@ public class UserDbStorageTest {
         assertThat(users.size()).isEqualTo(2);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testExistsByLoginAndEmail() {
+        userStorage.create(testUser);
+
+        assertThat(userStorage.existsByLogin("testlogin")).isTrue();
+        assertThat(userStorage.existsByLogin("otherlogin")).isFalse();
+        assertThat(userStorage.existsByEmail("test@mail.ru")).isTrue();
+        assertThat(userStorage.existsByEmail("other@mail.ru")).isFalse();
+    }
+
+    @Test
+    public void testDuplicateLoginRejectedByConstraint() {
+        userStorage.create(testUser);
+        User duplicateUser = new User();
+        duplicateUser.setEmail("other@mail.ru");
+        duplicateUser.setLogin("testlogin");
+        duplicateUser.setName("Duplicate User");
+        duplicateUser.setBirthday(LocalDate.of(1990, 1, 1));
+
+        assertThatThrownBy(() -> userStorage.create(duplicateUser)).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    public void testFindPage() {
+        User firstUser = userStorage.create(testUser);
+        User secondUser = new User();
+        secondUser.setEmail("second@mail.ru");
+        secondUser.setLogin("secondlogin");
+        secondUser.setName("Second User");
+        secondUser.setBirthday(LocalDate.of(1991, 2, 2));
+        userStorage.create(secondUser);
+
+        List<User> firstPage = userStorage.findPage(0, 1);
+        List<User> secondPage = userStorage.findPage(firstPage.getLast().getId(), 10);
+
+        assertThat(firstPage).extracting(User::getId).containsExactly(firstUser.getId());
+        assertThat(secondPage).extracting(User::getId).containsExactly(secondUser.getId());
+    }
+
+}
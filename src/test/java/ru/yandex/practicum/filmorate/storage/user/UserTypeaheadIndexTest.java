@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.mappers.user.UserRowMapper;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.function.LongToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({UserDbStorage.class,
+        UserRowMapper.class,
+        UserTypeaheadIndex.class})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserTypeaheadIndexTest {
+
+    @Autowired
+    private UserTypeaheadIndex userTypeaheadIndex;
+    @Autowired
+    private UserDbStorage userDbStorage;
+
+    private User anna;
+    private User andrey;
+    private User boris;
+    private LongToIntFunction friendsCount;
+
+    @BeforeEach
+    public void setUp() {
+        anna = userDbStorage.create(createUser("anna", "Анна Петрова"));
+        andrey = userDbStorage.create(createUser("andrey", "Андрей Смирнов"));
+        boris = userDbStorage.create(createUser("boris_an", "Борис Аникин"));
+        userTypeaheadIndex.rebuild();
+        Map<Long, Integer> counts = Map.of(anna.getId(), 1, andrey.getId(), 5, boris.getId(), 3);
+        friendsCount = userId -> counts.getOrDefault(userId, 0);
+    }
+
+    @Test
+    public void testLoginPrefixOrderedByFriendsCount() {
+        assertThat(userTypeaheadIndex.search("an", 10, friendsCount)).containsExactly(andrey.getId(), anna.getId());
+        assertThat(userTypeaheadIndex.search("AN", 1, friendsCount)).containsExactly(andrey.getId());
+        assertThat(userTypeaheadIndex.search("zz", 10, friendsCount)).isEmpty();
+    }
+
+    @Test
+    public void testNameWordPrefix() {
+        assertThat(userTypeaheadIndex.search("ан", 10, friendsCount))
+                .containsExactly(andrey.getId(), boris.getId(), anna.getId());
+        assertThat(userTypeaheadIndex.search("смир", 10, friendsCount)).containsExactly(andrey.getId());
+        assertThat(userTypeaheadIndex.search("анна пет", 10, friendsCount)).containsExactly(anna.getId());
+    }
+
+    @Test
+    public void testUpdateReplacesKeys() {
+        anna.setLogin("hanna");
+        anna.setName("Ханна");
+        userTypeaheadIndex.add(anna);
+
+        assertThat(userTypeaheadIndex.search("anna", 10, friendsCount)).isEmpty();
+        assertThat(userTypeaheadIndex.search("han", 10, friendsCount)).containsExactly(anna.getId());
+        assertThat(userTypeaheadIndex.size()).isEqualTo(3);
+    }
+
+    private User createUser(String login, String name) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setName(name);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+}